@@ -1,5 +1,12 @@
 ﻿USE payments_db;
 CREATE TABLE PEOPLE (id_person BIGINT IDENTITY(101,1) PRIMARY KEY, name NVARCHAR(255) NOT NULL, cpf VARCHAR(14) UNIQUE NOT NULL, date_of_birth DATE);
-CREATE TABLE ACCOUNTS (id_account BIGINT IDENTITY(1001,1) PRIMARY KEY, id_person BIGINT NOT NULL, balance DECIMAL(18,2) NOT NULL DEFAULT 0.00, daily_withdrawal_limit DECIMAL(18,2) NOT NULL, is_active_flag BIT NOT NULL, account_type INT NOT NULL, creation_date DATETIME NOT NULL DEFAULT GETDATE(), CONSTRAINT FK_Account_Person FOREIGN KEY (id_person) REFERENCES PEOPLE(id_person));
-CREATE TABLE TRANSACTIONS (id_transaction BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, value DECIMAL(18,2) NOT NULL, transaction_date DATETIME NOT NULL DEFAULT GETDATE(), CONSTRAINT FK_Transaction_Account FOREIGN KEY (id_account) REFERENCES ACCOUNTS(id_account));
+CREATE TABLE ACCOUNTS (id_account BIGINT IDENTITY(1001,1) PRIMARY KEY, id_person BIGINT NOT NULL, balance DECIMAL(18,2) NOT NULL DEFAULT 0.00, daily_withdrawal_limit DECIMAL(18,2) NOT NULL, is_active_flag BIT NOT NULL, account_type INT NOT NULL, creation_date DATETIME NOT NULL DEFAULT GETDATE(), CONSTRAINT FK_Account_Person FOREIGN KEY (id_person) REFERENCES PEOPLE(id_person)); CREATE INDEX IX_Account_Person ON ACCOUNTS (id_person);
+CREATE TABLE TRANSACTIONS (id_transaction BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, value DECIMAL(18,2) NOT NULL, transaction_date DATETIME NOT NULL DEFAULT GETDATE(), CONSTRAINT FK_Transaction_Account FOREIGN KEY (id_account) REFERENCES ACCOUNTS(id_account)); CREATE INDEX IX_Transaction_Account_Date ON TRANSACTIONS (id_account, transaction_date); CREATE INDEX IX_Transaction_Date ON TRANSACTIONS (transaction_date);
 SET IDENTITY_INSERT PEOPLE ON; INSERT INTO PEOPLE (id_person,name,cpf,date_of_birth) VALUES (101,'Alice Smith','123.456.789-00','1990-05-15'); SET IDENTITY_INSERT PEOPLE OFF;
+CREATE TABLE OUTBOX_EVENTS (id_event BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, id_transaction BIGINT NOT NULL, event_type VARCHAR(20) NOT NULL, value DECIMAL(18,2) NOT NULL, balance_after DECIMAL(18,2) NOT NULL, created_at DATETIME NOT NULL, published BIT NOT NULL DEFAULT 0); CREATE INDEX IX_Outbox_Published ON OUTBOX_EVENTS (published, id_event); CREATE INDEX IX_Outbox_Account ON OUTBOX_EVENTS (id_account, id_event);
+CREATE TABLE ACCOUNT_AGGREGATES (id_aggregate BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, period_type VARCHAR(10) NOT NULL, period_start DATE NOT NULL, deposit_count BIGINT NOT NULL, deposit_total DECIMAL(18,2) NOT NULL, withdrawal_count BIGINT NOT NULL, withdrawal_total DECIMAL(18,2) NOT NULL, last_activity DATETIME, CONSTRAINT UQ_Aggregate_Period UNIQUE (id_account, period_type, period_start));
+CREATE TABLE HOLDS (id_hold BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, amount DECIMAL(18,2) NOT NULL, status VARCHAR(10) NOT NULL, created_at DATETIME NOT NULL, expires_at DATETIME NOT NULL, resolved_at DATETIME, captured_amount DECIMAL(18,2), id_transaction BIGINT, CONSTRAINT FK_Hold_Account FOREIGN KEY (id_account) REFERENCES ACCOUNTS(id_account)); CREATE INDEX IX_Hold_Status ON HOLDS (status, id_hold); ALTER TABLE ACCOUNTS ADD held_amount DECIMAL(18,2) DEFAULT 0.00;
+ALTER TABLE OUTBOX_EVENTS ADD stream_offset BIGINT; CREATE UNIQUE INDEX UQ_Outbox_StreamOffset ON OUTBOX_EVENTS (stream_offset) WHERE stream_offset IS NOT NULL; DROP INDEX IX_Outbox_Account ON OUTBOX_EVENTS; CREATE INDEX IX_Outbox_Account ON OUTBOX_EVENTS (id_account, stream_offset); CREATE TABLE OUTBOX_CURSOR (id_cursor INT PRIMARY KEY, last_offset BIGINT NOT NULL);
+ALTER TABLE ACCOUNTS ADD last_transaction_id BIGINT, state_version BIGINT DEFAULT 0;
+CREATE TABLE POSTING_RUNS (id_run BIGINT IDENTITY(1,1) PRIMARY KEY, kind VARCHAR(10) NOT NULL, business_date DATE NOT NULL, last_account_id BIGINT NOT NULL DEFAULT 0, posted_count BIGINT NOT NULL DEFAULT 0, completed BIT NOT NULL DEFAULT 0, started_at DATETIME NOT NULL, finished_at DATETIME, CONSTRAINT UQ_PostingRun_Kind_Date UNIQUE (kind, business_date)); CREATE TABLE POSTING_ENTRIES (id_entry BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, kind VARCHAR(10) NOT NULL, business_date DATE NOT NULL, CONSTRAINT UQ_PostingEntry_Account_Kind_Date UNIQUE (id_account, kind, business_date));
+CREATE TABLE ACCOUNT_BALANCE_SLOTS (id_slot BIGINT IDENTITY(1,1) PRIMARY KEY, id_account BIGINT NOT NULL, slot INT NOT NULL, balance DECIMAL(18,2) NOT NULL DEFAULT 0.00, last_transaction_id BIGINT, write_count BIGINT DEFAULT 0, CONSTRAINT UQ_BalanceSlot_Account_Slot UNIQUE (id_account, slot)); ALTER TABLE ACCOUNTS ADD slot_count INT, slots_pinned BIT; ALTER TABLE ACCOUNT_AGGREGATES ADD slot INT NOT NULL DEFAULT 0; ALTER TABLE ACCOUNT_AGGREGATES DROP CONSTRAINT UQ_Aggregate_Period; ALTER TABLE ACCOUNT_AGGREGATES ADD CONSTRAINT UQ_Aggregate_Period_Slot UNIQUE (id_account, period_type, period_start, slot);
@@ -0,0 +1,32 @@
+package com.tassi.payments.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.slots")
+public class BalanceSlotProperties {
+
+    // automatic promotion/demotion, opt-in; manual changes through the admin endpoint work either way
+    private boolean autoEnabled = false;
+
+    // slots given to an account promoted automatically
+    private int defaultCount = 16;
+
+    private int maxCount = 64;
+
+    // promote when, on this instance, an account sees at least this many deposits/withdrawals per second...
+    private double promoteMinRate = 100;
+
+    // ...and they wait on average at least this long for the ACCOUNTS row lock
+    private Duration promoteLockWait = Duration.ofMillis(5);
+
+    // demote once the account stays under this rate for demoteAfter
+    private double demoteMaxRate = 10;
+
+    private Duration demoteAfter = Duration.ofMinutes(10);
+
+}
@@ -0,0 +1,80 @@
+package com.tassi.payments.config;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// times the first real API requests of the instance and logs their percentiles once, to compare cold and warmed starts
+public class FirstRequestLatencyInterceptor implements HandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(FirstRequestLatencyInterceptor.class);
+
+    private static final String START_ATTRIBUTE = FirstRequestLatencyInterceptor.class.getName() + ".start";
+
+    private final long[] samples;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger recorded = new AtomicInteger();
+    private volatile Map<String, Object> summary;
+
+    public FirstRequestLatencyInterceptor(int requests) {
+        this.samples = new long[requests];
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (next.get() < samples.length) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object start = request.getAttribute(START_ATTRIBUTE);
+        if (start == null) {
+            return;
+        }
+        int slot = next.getAndIncrement();
+        if (slot >= samples.length) {
+            return;
+        }
+        samples[slot] = System.nanoTime() - (Long) start;
+        if (recorded.incrementAndGet() == samples.length) {
+            summary = summarize();
+            log.info("First {} requests: p50 {} us, p99 {} us, max {} us", samples.length,
+                summary.get("p50Micros"), summary.get("p99Micros"), summary.get("maxMicros"));
+        }
+    }
+
+    // null until all the first requests have completed
+    public Map<String, Object> summary() {
+        return summary;
+    }
+
+    public int recorded() {
+        return recorded.get();
+    }
+
+    private Map<String, Object> summarize() {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", sorted.length);
+        result.put("p50Micros", percentile(sorted, 0.50) / 1000);
+        result.put("p99Micros", percentile(sorted, 0.99) / 1000);
+        result.put("maxMicros", sorted[sorted.length - 1] / 1000);
+        return result;
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,27 @@
+package com.tassi.payments.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.holds")
+public class HoldProperties {
+
+    // lifetime of a hold when the request doesn't give one, and the longest accepted
+    private Duration defaultTtl = Duration.ofDays(7);
+    private Duration maxTtl = Duration.ofDays(30);
+
+    // expiry wheel: resolution, buckets per level and levels (1s x 64^4 covers about 190 days)
+    private Duration tick = Duration.ofSeconds(1);
+    private int wheelSize = 64;
+    private int wheelLevels = 4;
+
+    // expired holds released per database transaction
+    private int batchSize = 500;
+
+    // load the active holds into the wheel when the application starts
+    private boolean recoverOnStartup = true;
+}
@@ -0,0 +1,50 @@
+package com.tassi.payments.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.posting")
+public class PostingProperties {
+
+    // scheduled runs; manual runs through the admin endpoint work either way
+    private boolean enabled = false;
+
+    // accounts per chunk (one database transaction each)
+    private int chunkSize = 1000;
+
+    // chunks processed concurrently; keep below the pool size so live traffic still gets connections
+    private int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    // upper bound on chunk throughput, 0 = unlimited
+    private double maxChunksPerSecond = 20;
+
+    // pause before the next wave while requests are queued for a pool connection
+    private Duration busyBackoff = Duration.ofMillis(200);
+
+    // interest and fee rules by Account.accountType; types without a rule are skipped
+    private Map<Integer, Rule> accountTypes = new HashMap<>();
+
+    @Data
+    public static class Rule {
+
+        // e.g. 0.0365 = 3.65% a year, accrued daily on the end-of-day balance (365-day basis)
+        private BigDecimal annualInterestRate = BigDecimal.ZERO;
+
+        // charged on the first day of each month, capped at the available balance
+        private BigDecimal monthlyFee = BigDecimal.ZERO;
+
+        public Rule() {}
+
+        public Rule(BigDecimal annualInterestRate, BigDecimal monthlyFee) {
+            this.annualInterestRate = annualInterestRate;
+            this.monthlyFee = monthlyFee;
+        }
+    }
+}
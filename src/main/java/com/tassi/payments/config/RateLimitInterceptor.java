@@ -0,0 +1,67 @@
+package com.tassi.payments.config;
+
+import java.security.Principal;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.tassi.payments.service.RateLimiter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// rejects money-movement requests with 429 before they reach the service layer
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        long waitMillis = rateLimiter.tryAcquireClient(clientKey(request));
+        if (waitMillis == 0) {
+            Long accountId = accountId(request);
+            if (accountId != null) {
+                waitMillis = rateLimiter.tryAcquireAccount(accountId);
+            }
+        }
+
+        if (waitMillis == 0) {
+            return true;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (waitMillis + 999) / 1000)));
+        return false;
+    }
+
+    // the authenticated principal, else the client address; behind a load balancer the address is
+    // the forwarded one (server.forward-headers-strategy), never a header the client chooses itself
+    static String clientKey(HttpServletRequest request) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "principal:" + principal.getName();
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Long accountId(HttpServletRequest request) {
+        Map<String, String> variables =
+            (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables == null || variables.get("accountId") == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(variables.get("accountId"));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.tassi.payments.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // buckets untouched for this long are dropped (they would be full again anyway)
+    private Duration idleTimeout = Duration.ofMinutes(10);
+
+    // limit shared by every account of a client (authenticated principal or client address)
+    private Limit client = new Limit(200, 100);
+
+    // default per-account limit, overridden by accountType below
+    private Limit account = new Limit(20, 10);
+
+    private Map<Integer, Limit> accountTypes = new HashMap<>();
+
+    public Limit forAccountType(Integer accountType) {
+        if (accountType == null) {
+            return account;
+        }
+        return accountTypes.getOrDefault(accountType, account);
+    }
+
+    @Data
+    public static class Limit {
+
+        // burst size
+        private int capacity;
+
+        // sustained rate
+        private double refillPerSecond;
+
+        public Limit() {}
+
+        public Limit(int capacity, double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+}
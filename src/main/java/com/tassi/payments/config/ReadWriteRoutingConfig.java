@@ -0,0 +1,112 @@
+package com.tassi.payments.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Primary + read replica datasources, active once payments.datasource.replicas[0].url is set.
+ *
+ * @Transactional(readOnly = true) work goes to a replica within the lag tolerance, the same
+ * one for the whole request; writes stay on the primary, and a client that just wrote reads
+ * from the primary or a replica that has replayed its write (ReadYourWritesFilter).
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "payments.datasource.replicas[0].url")
+public class ReadWriteRoutingConfig {
+
+    private final ReplicaProperties replicaProperties;
+
+    public ReadWriteRoutingConfig(ReplicaProperties replicaProperties) {
+        this.replicaProperties = replicaProperties;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaPools replicaPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (int i = 0; i < replicaProperties.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = replicaProperties.getReplicas().get(i);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName("replica-" + i);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            pools.add(dataSource);
+        }
+        return new ReplicaPools(pools);
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(HikariDataSource primaryDataSource, ReplicaPools replicaPools) {
+        Map<Object, Object> targets = new HashMap<>();
+        List<String> replicaKeys = new ArrayList<>();
+        targets.put(ReadWriteRoutingDataSource.PRIMARY, primaryDataSource);
+        for (HikariDataSource replica : replicaPools.pools()) {
+            targets.put(replica.getPoolName(), replica);
+            replicaKeys.add(replica.getPoolName());
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(replicaKeys);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+
+    // the lazy proxy delays connection lookup until the transaction's read-only flag is set
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource, ReplicaPools replicaPools) {
+        ReplicaLagMonitor monitor = new ReplicaLagMonitor(readWriteRoutingDataSource,
+            List.copyOf(replicaPools.pools()), replicaProperties);
+        monitor.check();
+        return monitor;
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(HikariDataSource primaryDataSource) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+            new FilterRegistrationBean<>(new ReadYourWritesFilter(primaryDataSource, replicaProperties));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    // replica pools, kept out of the DataSource beans so injection by type stays unambiguous
+    public record ReplicaPools(List<HikariDataSource> pools) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
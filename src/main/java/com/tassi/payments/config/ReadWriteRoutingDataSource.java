@@ -0,0 +1,78 @@
+package com.tassi.payments.config;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ *
+ * Within a request every read-only transaction uses the same data source, so two reads of one
+ * request never come from replicas at different points of the WAL. A request carrying a write
+ * position (see ReadYourWritesFilter) only goes to replicas that have replayed up to it.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the read-only flag of a transaction is only
+ * known after the transaction manager has asked for its connection.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private final List<String> replicaKeys;
+    private final AtomicIntegerArray healthy;
+    private final AtomicLongArray replayed;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReadWriteRoutingDataSource(List<String> replicaKeys) {
+        this.replicaKeys = List.copyOf(replicaKeys);
+        this.healthy = new AtomicIntegerArray(replicaKeys.size());
+        this.replayed = new AtomicLongArray(replicaKeys.size());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || RoutingContext.isPrimaryForced()) {
+            return PRIMARY;
+        }
+
+        Object pinned = RoutingContext.target();
+        if (pinned != null) {
+            // a replica dropped mid-request is replaced by the primary, which is never behind it
+            int index = replicaKeys.indexOf(pinned);
+            return index < 0 || healthy.get(index) == 1 ? pinned : PRIMARY;
+        }
+        Object target = choose(RoutingContext.minPosition());
+        RoutingContext.pin(target);
+        return target;
+    }
+
+    // round-robin over healthy replicas that have replayed up to minPosition, primary when none is usable
+    private Object choose(long minPosition) {
+        int size = replicaKeys.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int candidate = (start + i) % size;
+            if (healthy.get(candidate) == 1 && replayed.get(candidate) >= minPosition) {
+                return replicaKeys.get(candidate);
+            }
+        }
+        return PRIMARY;
+    }
+
+    public void setReplicaHealthy(int index, boolean isHealthy) {
+        healthy.set(index, isHealthy ? 1 : 0);
+    }
+
+    public boolean isReplicaHealthy(int index) {
+        return healthy.get(index) == 1;
+    }
+
+    // last WAL position the replica was seen to have replayed
+    public void setReplicaPosition(int index, long position) {
+        replayed.set(index, position);
+    }
+}
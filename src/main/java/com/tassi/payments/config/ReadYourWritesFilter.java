@@ -0,0 +1,144 @@
+package com.tassi.payments.config;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Read-your-writes for replica routing, across instances: a successful write hands the client a
+ * cookie with the primary's WAL position after it, and the client's later reads only go to
+ * replicas that have replayed up to that position (the primary otherwise). Nothing is kept on
+ * the instance, so the next request may land on any of them.
+ *
+ * Without a write position query the cookie carries the time of the write instead, and the
+ * client's reads stay on the primary for the read-your-writes window.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "payments-rw";
+
+    private static final String POSITION = "lsn-";
+    private static final String TIME = "at-";
+
+    private final JdbcTemplate primary;
+    private final String writePositionQuery;
+    private final Duration window;
+
+    public ReadYourWritesFilter(DataSource primaryDataSource, ReplicaProperties properties) {
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.writePositionQuery = properties.getWritePositionQuery();
+        this.window = properties.getReadYourWritesWindow();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        begin(request);
+        try {
+            if ("GET".equals(request.getMethod())) {
+                chain.doFilter(request, response);
+                return;
+            }
+            WriteResponse write = new WriteResponse(response);
+            chain.doFilter(request, write);
+            // responses without a body
+            write.issueToken();
+        } finally {
+            RoutingContext.clear();
+        }
+    }
+
+    private void begin(HttpServletRequest request) {
+        String token = token(request);
+        if (token != null && token.startsWith(POSITION)) {
+            RoutingContext.begin(false, parse(token.substring(POSITION.length())));
+        } else if (token != null && token.startsWith(TIME)) {
+            long wroteAt = parse(token.substring(TIME.length()));
+            RoutingContext.begin(System.currentTimeMillis() - wroteAt < window.toMillis(), 0);
+        } else {
+            RoutingContext.begin(false, 0);
+        }
+    }
+
+    // read after the write committed: the service transaction ends before the body is written
+    private Cookie newToken() {
+        String value = writePositionQuery == null || writePositionQuery.isBlank()
+            ? TIME + System.currentTimeMillis()
+            : POSITION + ReplicaLagMonitor.parseWalPosition(primary.queryForObject(writePositionQuery, String.class));
+        Cookie cookie = new Cookie(COOKIE, value);
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) window.toSeconds());
+        return cookie;
+    }
+
+    private static String token(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    // a tampered cookie only costs the client its read-your-writes
+    private static long parse(String number) {
+        try {
+            return Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    // adds the cookie to a successful write's response before its headers are sent
+    private final class WriteResponse extends HttpServletResponseWrapper {
+
+        private boolean issued;
+
+        WriteResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void issueToken() {
+            if (!issued && !isCommitted() && getStatus() < 400) {
+                addCookie(newToken());
+            }
+            issued = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            issueToken();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            issueToken();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            issueToken();
+            super.flushBuffer();
+        }
+    }
+}
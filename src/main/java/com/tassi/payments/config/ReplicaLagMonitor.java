@@ -0,0 +1,83 @@
+package com.tassi.payments.config;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// marks replicas usable only while their replay lag is within the configured tolerance, and
+// records how far each has replayed for read-your-writes routing
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final List<DataSource> replicas;
+    private final ReplicaProperties properties;
+
+    public ReplicaLagMonitor(ReadWriteRoutingDataSource routingDataSource, List<DataSource> replicas, ReplicaProperties properties) {
+        this.routingDataSource = routingDataSource;
+        this.replicas = replicas;
+        this.properties = properties;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.datasource.lag-check-interval-ms:1000}")
+    public void check() {
+        double maxLagSeconds = properties.getMaxReplicaLag().toMillis() / 1000.0;
+        for (int i = 0; i < replicas.size(); i++) {
+            boolean healthy;
+            try {
+                healthy = lagSeconds(replicas.get(i)) <= maxLagSeconds;
+                routingDataSource.setReplicaPosition(i, replayPosition(replicas.get(i)));
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy != routingDataSource.isReplicaHealthy(i)) {
+                log.info("Replica {} is now {}", i, healthy ? "in rotation" : "out of rotation");
+            }
+            routingDataSource.setReplicaHealthy(i, healthy);
+        }
+    }
+
+    private double lagSeconds(DataSource replica) throws Exception {
+        String query = properties.getLagQuery();
+        try (Connection connection = replica.getConnection()) {
+            if (query == null || query.isBlank()) {
+                return connection.isValid(1) ? 0 : Double.MAX_VALUE;
+            }
+            try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(query)) {
+                return rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+            }
+        }
+    }
+
+    private long replayPosition(DataSource replica) throws Exception {
+        String query = properties.getReplayPositionQuery();
+        if (query == null || query.isBlank()) {
+            return 0;
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            return rs.next() ? parseWalPosition(rs.getString(1)) : 0;
+        }
+    }
+
+    // a Postgres LSN such as 16/B374D848 as a comparable number; 0 for null (not a standby)
+    static long parseWalPosition(String lsn) {
+        if (lsn == null) {
+            return 0;
+        }
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Invalid WAL position: " + lsn);
+        }
+        return Long.parseLong(lsn.substring(0, slash), 16) << 32 | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+}
@@ -0,0 +1,41 @@
+package com.tassi.payments.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.datasource")
+public class ReplicaProperties {
+
+    // read replicas; routing is only enabled when at least one is configured
+    private List<Replica> replicas = new ArrayList<>();
+
+    // replicas lagging more than this are skipped until they catch up
+    private Duration maxReplicaLag = Duration.ofSeconds(2);
+
+    // how long a client's write is tracked for read-your-writes (the lifetime of its cookie); without
+    // a write position query its reads stay on the primary for this long
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    // returns the replay lag in seconds; blank disables the check (e.g. H2 in tests)
+    private String lagQuery = "select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+        + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+
+    // the primary's WAL position after a write, and how far a replica has replayed; both blank
+    // (e.g. H2 in tests) fall back to keeping a writer on the primary for the whole window
+    private String writePositionQuery = "select pg_current_wal_lsn()::text";
+    private String replayPositionQuery = "select pg_last_wal_replay_lsn()::text";
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
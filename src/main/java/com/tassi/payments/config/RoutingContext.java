@@ -0,0 +1,48 @@
+package com.tassi.payments.config;
+
+// per-request routing state set by ReadYourWritesFilter; absent outside requests (scheduled jobs)
+public final class RoutingContext {
+
+    private static final ThreadLocal<RoutingContext> CURRENT = new ThreadLocal<>();
+
+    private final boolean primaryForced;
+    // WAL position a replica must have replayed to serve this request, 0 for any
+    private final long minPosition;
+    // the data source chosen by the first read-only transaction, reused by the rest of the request
+    private Object target;
+
+    private RoutingContext(boolean primaryForced, long minPosition) {
+        this.primaryForced = primaryForced;
+        this.minPosition = minPosition;
+    }
+
+    public static void begin(boolean primaryForced, long minPosition) {
+        CURRENT.set(new RoutingContext(primaryForced, minPosition));
+    }
+
+    public static boolean isPrimaryForced() {
+        RoutingContext context = CURRENT.get();
+        return context != null && context.primaryForced;
+    }
+
+    public static long minPosition() {
+        RoutingContext context = CURRENT.get();
+        return context == null ? 0 : context.minPosition;
+    }
+
+    public static Object target() {
+        RoutingContext context = CURRENT.get();
+        return context == null ? null : context.target;
+    }
+
+    public static void pin(Object target) {
+        RoutingContext context = CURRENT.get();
+        if (context != null) {
+            context.target = target;
+        }
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
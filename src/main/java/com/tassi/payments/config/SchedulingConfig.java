@@ -0,0 +1,11 @@
+package com.tassi.payments.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties({PostingProperties.class, BalanceSlotProperties.class, VelocityProperties.class, HoldProperties.class})
+public class SchedulingConfig {
+}
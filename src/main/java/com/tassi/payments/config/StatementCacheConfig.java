@@ -0,0 +1,23 @@
+package com.tassi.payments.config;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.tassi.payments.service.MappedPageSpill;
+
+@Configuration
+@EnableConfigurationProperties(StatementCacheProperties.class)
+public class StatementCacheConfig {
+
+    // second tier for statement pages evicted from the heap
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty("payments.statement-cache.spill-directory")
+    public MappedPageSpill statementPageSpill(StatementCacheProperties properties) throws IOException {
+        return new MappedPageSpill(Path.of(properties.getSpillDirectory()), properties.getSpillMaxSize().toBytes());
+    }
+}
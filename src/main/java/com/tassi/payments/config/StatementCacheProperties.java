@@ -0,0 +1,32 @@
+package com.tassi.payments.config;
+
+import java.time.ZoneId;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.statement-cache")
+public class StatementCacheProperties {
+
+    // serve JSON statements from cached day pages; off means every statement is read from TRANSACTIONS
+    private boolean enabled = true;
+
+    // serialized page bytes kept on the heap; response compression happens once, on the whole statement
+    private DataSize maxMemory = DataSize.ofMegabytes(64);
+
+    // accounts whose list of closed days is kept, so a statement only counts the days since
+    private long maxIndexedAccounts = 100_000;
+
+    // the bank's business-day zone: days before today there are closed and served from pages
+    private ZoneId zone = ZoneId.systemDefault();
+
+    // pages evicted from memory go to a memory-mapped file here; unset means no spill
+    private String spillDirectory;
+
+    // the spill file starts over once full (at most 2GB, one mapping)
+    private DataSize spillMaxSize = DataSize.ofMegabytes(512);
+
+}
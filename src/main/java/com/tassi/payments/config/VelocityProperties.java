@@ -0,0 +1,59 @@
+package com.tassi.payments.config;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.velocity")
+public class VelocityProperties {
+
+    private boolean enabled = true;
+
+    // rolling window the rules apply to
+    private Duration window = Duration.ofMinutes(10);
+
+    // the window is tracked in this many time buckets (10 minutes / 60 = 10s resolution)
+    private int buckets = 60;
+
+    // replay the last window of withdrawals from TRANSACTIONS when the application starts
+    private boolean rebuildOnStartup = true;
+
+    // default rule, overridden by accountType below; no limits unless configured
+    private Rule account = new Rule();
+
+    private Map<Integer, Rule> accountTypes = new HashMap<>();
+
+    public Rule forAccountType(Integer accountType) {
+        if (accountType == null) {
+            return account;
+        }
+        return accountTypes.getOrDefault(accountType, account);
+    }
+
+    @Data
+    public static class Rule {
+
+        // withdrawals per window; 0 means no limit
+        private int maxCount;
+
+        // total withdrawn per window; unset means no limit
+        private BigDecimal maxAmount;
+
+        public Rule() {}
+
+        public Rule(int maxCount, BigDecimal maxAmount) {
+            this.maxCount = maxCount;
+            this.maxAmount = maxAmount;
+        }
+
+        public boolean isUnlimited() {
+            return maxCount <= 0 && maxAmount == null;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.tassi.payments.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(WarmupProperties.class)
+public class WarmupConfig implements WebMvcConfigurer {
+
+    private final WarmupProperties properties;
+
+    public WarmupConfig(WarmupProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public FirstRequestLatencyInterceptor firstRequestLatencyInterceptor() {
+        return new FirstRequestLatencyInterceptor(Math.max(0, properties.getFirstRequests()));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (properties.getFirstRequests() <= 0) {
+            return;
+        }
+        // streams stay open for minutes and would only skew the numbers
+        registry.addInterceptor(firstRequestLatencyInterceptor())
+                .addPathPatterns("/api/v1/**")
+                .excludePathPatterns("/api/v1/accounts/*/balance/stream", "/api/v1/accounts/*/events");
+    }
+}
@@ -0,0 +1,29 @@
+package com.tassi.payments.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "payments.warmup")
+public class WarmupProperties {
+
+    // run synthetic traffic (rolled back) after startup and report not-ready until it settles
+    private boolean enabled = false;
+
+    // upper bound on the whole warm-up, settled or not
+    private Duration maxDuration = Duration.ofSeconds(60);
+
+    // rounds always run, and throwaway accounts exercised per round
+    private int minRounds = 5;
+    private int accountsPerRound = 25;
+
+    // settled once JIT compilation takes less than this share of a round's wall time, `stableRounds` rounds in a row
+    private double settleRatio = 0.05;
+    private int stableRounds = 3;
+
+    // real requests whose latency is reported after the warm-up (0 turns it off)
+    private int firstRequests = 1000;
+}
@@ -6,33 +6,65 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.tassi.payments.dto.AccountBalancesDto;
 import com.tassi.payments.dto.AccountRequest;
+import com.tassi.payments.dto.AccountSummaryResponse;
+import com.tassi.payments.dto.ColumnarStatementResponse;
 import com.tassi.payments.dto.OperationRequest;
 import com.tassi.payments.dto.StatementResponse;
 import com.tassi.payments.dto.TransactionDto;
+import com.tassi.payments.jfr.OperationTrace;
 import com.tassi.payments.model.Account;
 import com.tassi.payments.model.Transaction;
 import com.tassi.payments.service.AccountService;
+import com.tassi.payments.service.AccountState;
+import com.tassi.payments.service.AccountSummaryService;
+import com.tassi.payments.service.AccountVersionCache;
+import com.tassi.payments.service.BalanceStreamRegistry;
+import com.tassi.payments.service.StatementPageCache;
+import com.tassi.payments.service.TransactionEventStreamService;
 
 @RestController
 @RequestMapping("/api/v1/accounts")
 public class AccountController {
 
     private final AccountService accountService;
+    private final TransactionEventStreamService transactionEventStreamService;
+    private final BalanceStreamRegistry balanceStreamRegistry;
+    private final AccountSummaryService accountSummaryService;
+    private final AccountVersionCache accountVersionCache;
+    private final StatementPageCache statementPageCache;
 
-    public AccountController(AccountService accountService) {
+    public AccountController(AccountService accountService,
+                             TransactionEventStreamService transactionEventStreamService,
+                             BalanceStreamRegistry balanceStreamRegistry,
+                             AccountSummaryService accountSummaryService,
+                             AccountVersionCache accountVersionCache,
+                             StatementPageCache statementPageCache) {
         this.accountService = accountService;
+        this.transactionEventStreamService = transactionEventStreamService;
+        this.balanceStreamRegistry = balanceStreamRegistry;
+        this.accountSummaryService = accountSummaryService;
+        this.accountVersionCache = accountVersionCache;
+        this.statementPageCache = statementPageCache;
     }
 
     // POST - new account
@@ -63,11 +95,40 @@ public class AccountController {
         return ResponseEntity.ok().build(); 
     }
     
-    // GET - balance
+    // GET - balance; 304 when If-None-Match carries the current ETag
     @GetMapping("/{accountId}/balance")
-    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long accountId) {
-        BigDecimal balance = accountService.getBalance(accountId);
-        return ResponseEntity.ok(balance);
+    public ResponseEntity<BigDecimal> getBalance(@PathVariable Long accountId,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String current = etag(accountId, accountVersionCache.get(accountId), "balance");
+        if (matches(ifNoneMatch, current)) {
+            return notModified(current);
+        }
+        AccountState state = accountService.getState(accountId);
+        return ResponseEntity.ok()
+            .eTag(etag(accountId, state.version(), "balance"))
+            .cacheControl(CacheControl.noCache())
+            .body(state.balance());
+    }
+
+    // GET - ledger, held and available balances; same ETag rules as the balance
+    @GetMapping("/{accountId}/balances")
+    public ResponseEntity<AccountBalancesDto> getBalances(@PathVariable Long accountId,
+                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String current = etag(accountId, accountVersionCache.get(accountId), "balances");
+        if (matches(ifNoneMatch, current)) {
+            return notModified(current);
+        }
+        AccountState state = accountService.getState(accountId);
+        return ResponseEntity.ok()
+            .eTag(etag(accountId, state.version(), "balances"))
+            .cacheControl(CacheControl.noCache())
+            .body(new AccountBalancesDto(accountId, state.balance(), state.held(), state.available()));
+    }
+
+    // GET - balance stream (SSE), current balance first and then every committed change
+    @GetMapping(path = "/{accountId}/balance/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBalance(@PathVariable Long accountId) {
+        return balanceStreamRegistry.subscribe(accountId);
     }
 
     // PATCH - block account
@@ -84,25 +145,79 @@ public class AccountController {
         return ResponseEntity.ok(unblockedAccount);
     }
 
-    // GET - statement
+    // GET - statement (JSON, or CBOR with Accept: application/cbor); 304 when unchanged
     @GetMapping("/{accountId}/statement")
-    public ResponseEntity<StatementResponse> getStatement(@PathVariable Long accountId) {
-        List<Transaction> transactions = accountService.getStatement(accountId);
-        BigDecimal balance = accountService.getBalance(accountId);
+    public ResponseEntity<?> getStatement(@PathVariable Long accountId,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // strong ETags are per representation
+        String representation = statementRepresentation(accept);
+        OperationTrace trace = OperationTrace.begin("statement", accountId);
+        try {
+            trace.phase("version");
+            String current = etag(accountId, accountVersionCache.get(accountId), representation);
+            if (matches(ifNoneMatch, current)) {
+                trace.success();
+                return notModified(current);
+            }
+            trace.phase("state");
+            AccountState state = accountService.getState(accountId);
+            ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                .eTag(etag(accountId, state.version(), representation))
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT);
 
-        List<TransactionDto> transactionDtos = transactions.stream()
-            .map(t -> {
-                TransactionDto dto = new TransactionDto();
-                dto.setId(t.getIdTransaction());
-                dto.setType(t.getValue().compareTo(BigDecimal.ZERO) >= 0 ? "Depósito" : "Saque");
-                dto.setAmount(t.getValue().abs());
-                dto.setCreatedAt(t.getTransactionDate());
-                return dto;
-            })
-            .collect(Collectors.toList());
+            // JSON is stitched from cached pages of closed days plus today's transactions
+            if (representation.equals("json") && statementPageCache.isEnabled()) {
+                trace.phase("pages");
+                byte[] body = statementPageCache.statementJson(state);
+                trace.success();
+                return ok.contentType(MediaType.APPLICATION_JSON).body(body);
+            }
+            StatementResponse body = buildStatement(trace, state);
+            trace.success();
+            return ok.body(body);
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
+    }
 
-        StatementResponse response = new StatementResponse(accountId, balance, transactionDtos);
-        return ResponseEntity.ok(response);
+    // GET - statement as column arrays (Accept: application/vnd.payments.columnar+json)
+    @GetMapping(path = "/{accountId}/statement", produces = ColumnarStatementResponse.MEDIA_TYPE)
+    public ResponseEntity<ColumnarStatementResponse> getColumnarStatement(@PathVariable Long accountId,
+                                                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String current = etag(accountId, accountVersionCache.get(accountId), "columnar");
+        if (matches(ifNoneMatch, current)) {
+            return notModified(current);
+        }
+        AccountState state = accountService.getState(accountId);
+        return ResponseEntity.ok()
+            .eTag(etag(accountId, state.version(), "columnar"))
+            .cacheControl(CacheControl.noCache())
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(ColumnarStatementResponse.from(buildStatement(OperationTrace.none(), state)));
+    }
+
+    // GET - summary (precomputed totals)
+    @GetMapping("/{accountId}/summary")
+    public ResponseEntity<AccountSummaryResponse> getSummary(@PathVariable Long accountId) {
+        return ResponseEntity.ok(accountSummaryService.getSummary(accountId));
+    }
+
+    // POST - rebuild summary from the transaction history
+    @PostMapping("/{accountId}/summary/rebuild")
+    public ResponseEntity<AccountSummaryResponse> rebuildSummary(@PathVariable Long accountId) {
+        accountSummaryService.rebuild(accountId);
+        return ResponseEntity.ok(accountSummaryService.getSummary(accountId));
+    }
+
+    // GET - transaction event stream (SSE), resumable from Last-Event-ID or ?after=
+    @GetMapping(path = "/{accountId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(@PathVariable Long accountId,
+                                   @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                   @RequestParam(required = false) Long after) {
+        return transactionEventStreamService.open(accountId, after != null ? after : lastEventId);
     }
 
     // GET - statement by period
@@ -114,4 +229,78 @@ public class AccountController {
         
         return new ResponseEntity<>(List.of(), HttpStatus.NOT_IMPLEMENTED); 
     }
+
+    // the account is read before its transactions, so the body is never older than the ETag it is sent with
+    private StatementResponse buildStatement(OperationTrace trace, AccountState state) {
+        Long accountId = state.accountId();
+        trace.phase("load");
+        List<Transaction> transactions = accountService.getStatement(accountId);
+        BigDecimal balance = state.balance();
+
+        trace.phase("map");
+
+        List<TransactionDto> transactionDtos = transactions.stream()
+            .map(TransactionDto::from)
+            .collect(Collectors.toList());
+
+        return new StatementResponse(accountId, balance, transactionDtos);
+    }
+
+    // CBOR only when preferred over JSON by q-value (a tie keeps the listed order); JSON otherwise
+    static String statementRepresentation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return "json";
+        }
+        List<MediaType> types;
+        try {
+            types = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        // quality first, then specificity (MediaType.isMoreSpecific weighs the q-value)
+        MimeTypeUtils.sortBySpecificity(types);
+        for (MediaType type : types) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.equalsTypeAndSubtype(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (type.includes(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+        }
+        return "json";
+    }
+
+    // null for an unknown account, which then never matches (not even If-None-Match: *)
+    private static String etag(Long accountId, String version, String representation) {
+        if (version == null) {
+            return null;
+        }
+        return "\"" + accountId + "-" + version + "-" + representation + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag) || tag.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .build();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.tassi.payments.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tassi.payments.config.BalanceSlotProperties;
+import com.tassi.payments.service.BalanceSlotService;
+
+@RestController
+@RequestMapping("/api/v1/admin/accounts/{accountId}/slots")
+public class BalanceSlotController {
+
+    private final BalanceSlotService balanceSlotService;
+    private final BalanceSlotProperties properties;
+
+    public BalanceSlotController(BalanceSlotService balanceSlotService, BalanceSlotProperties properties) {
+        this.balanceSlotService = balanceSlotService;
+        this.properties = properties;
+    }
+
+    // PUT - spread the account's balance updates over slot rows (hot account); no-op if already slotted
+    @PutMapping
+    public ResponseEntity<Void> promote(@PathVariable Long accountId, @RequestParam(required = false) Integer count) {
+        int slots = count == null ? properties.getDefaultCount() : count;
+        if (slots < 1 || slots > properties.getMaxCount()) {
+            throw new IllegalArgumentException("Slot count must be between 1 and " + properties.getMaxCount() + ".");
+        }
+        balanceSlotService.promote(accountId, slots);
+        return ResponseEntity.noContent().build();
+    }
+
+    // DELETE - fold the slots back into the account balance
+    @DeleteMapping
+    public ResponseEntity<Void> demote(@PathVariable Long accountId) {
+        balanceSlotService.demote(accountId);
+        return ResponseEntity.noContent().build();
+    }
+}
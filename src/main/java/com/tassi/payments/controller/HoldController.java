@@ -0,0 +1,56 @@
+package com.tassi.payments.controller;
+
+import java.time.Duration;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tassi.payments.dto.HoldRequest;
+import com.tassi.payments.dto.OperationRequest;
+import com.tassi.payments.model.Hold;
+import com.tassi.payments.service.HoldService;
+
+@RestController
+@RequestMapping("/api/v1")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    public HoldController(HoldService holdService) {
+        this.holdService = holdService;
+    }
+
+    // POST - authorize: reserve funds until captured, released or expired
+    @PostMapping("/accounts/{accountId}/holds")
+    public ResponseEntity<Hold> authorize(@PathVariable Long accountId, @RequestBody HoldRequest request) {
+        Duration ttl = request.getTtlSeconds() == null ? null : Duration.ofSeconds(request.getTtlSeconds());
+        Hold hold = holdService.authorize(accountId, request.getValue(), ttl);
+        return new ResponseEntity<>(hold, HttpStatus.CREATED);
+    }
+
+    // GET - hold
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<Hold> getHold(@PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.getHold(holdId));
+    }
+
+    // POST - capture the whole hold, or part of it when a value is given
+    @PostMapping("/holds/{holdId}/capture")
+    public ResponseEntity<Hold> capture(@PathVariable Long holdId,
+                                        @RequestBody(required = false) OperationRequest request) {
+        Hold hold = holdService.capture(holdId, request == null ? null : request.getValue());
+        return ResponseEntity.ok(hold);
+    }
+
+    // POST - release
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<Hold> release(@PathVariable Long holdId) {
+        return ResponseEntity.ok(holdService.release(holdId));
+    }
+}
@@ -2,6 +2,7 @@ package com.tassi.payments.controller;
 
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,24 +10,39 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.tassi.payments.dto.PortfolioResponse;
 import com.tassi.payments.model.Person;
 import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountService;
+import com.tassi.payments.service.PersonChangedEvent;
 
 @RestController
 @RequestMapping("/api/v1/persons")
 public class PersonController {
 
+    // upper bound for the per-account transaction preview
+    private static final int MAX_RECENT = 50;
+
     private final PersonRepository personRepository;
+    private final AccountService accountService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public PersonController(PersonRepository personRepository) {
+    public PersonController(PersonRepository personRepository, AccountService accountService,
+                            ApplicationEventPublisher eventPublisher) {
         this.personRepository = personRepository;
+        this.accountService = accountService;
+        this.eventPublisher = eventPublisher;
     }
 
+    // a body with an existing id updates that person
     @PostMapping
     public ResponseEntity<Person> createPerson(@RequestBody Person person) {
         Person savedPerson = personRepository.save(person);
+        // committed: other instances drop the person and their cached person lists
+        eventPublisher.publishEvent(new PersonChangedEvent(savedPerson.getIdPerson()));
         return new ResponseEntity<>(savedPerson, HttpStatus.CREATED);
     }
 
@@ -42,4 +58,13 @@ public class PersonController {
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    // GET - all accounts of a person with balances and total; ?recent=k embeds the last k transactions of each
+    @GetMapping("/{id}/accounts")
+    public ResponseEntity<PortfolioResponse> getPortfolio(@PathVariable Long id,
+                                                          @RequestParam(defaultValue = "0") int recent) {
+        return accountService.getPortfolio(id, Math.max(0, Math.min(recent, MAX_RECENT)))
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -0,0 +1,51 @@
+package com.tassi.payments.controller;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tassi.payments.model.PostingKind;
+import com.tassi.payments.model.PostingRun;
+import com.tassi.payments.repository.PostingRunRepository;
+import com.tassi.payments.service.PostingEngine;
+
+@RestController
+@RequestMapping("/api/v1/admin/postings")
+public class PostingController {
+
+    private final PostingEngine postingEngine;
+    private final PostingRunRepository postingRunRepository;
+
+    public PostingController(PostingEngine postingEngine, PostingRunRepository postingRunRepository) {
+        this.postingEngine = postingEngine;
+        this.postingRunRepository = postingRunRepository;
+    }
+
+    // POST - start or resume a posting (INTEREST or FEE) for a past business date; 202 with the run
+    // to poll, or 200 when that date is already complete
+    @PostMapping("/{kind}")
+    public ResponseEntity<PostingRun> run(@PathVariable PostingKind kind,
+                                          @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        // a day still in progress would be posted on a partial balance
+        if (!date.isBefore(LocalDate.now())) {
+            return ResponseEntity.badRequest().build();
+        }
+        PostingRun run = postingEngine.start(kind, date);
+        return run.getCompleted() ? ResponseEntity.ok(run) : ResponseEntity.accepted().body(run);
+    }
+
+    // GET - progress of a posting run
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<PostingRun> getRun(@PathVariable Long id) {
+        return postingRunRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,18 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// ledger balance, the part of it reserved by active holds, and what is left to spend
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalancesDto {
+    private Long accountId;
+    private BigDecimal ledgerBalance;
+    private BigDecimal heldAmount;
+    private BigDecimal availableBalance;
+}
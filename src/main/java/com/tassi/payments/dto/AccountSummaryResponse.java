@@ -0,0 +1,21 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountSummaryResponse {
+    private Long accountId;
+    private BigDecimal balance;
+    private Long transactionCount;
+    private LocalDateTime lastActivity;
+    private PeriodTotalsDto allTime;
+    private PeriodTotalsDto today;
+    private PeriodTotalsDto thisMonth;
+}
@@ -0,0 +1,18 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceUpdateDto {
+    private Long accountId;
+    private BigDecimal balance;
+    private Boolean active;
+    // account version tag; a client may ignore an update older than the last one seen
+    private String version;
+}
@@ -0,0 +1,56 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Statement with one array per column instead of one object per transaction.
+ *
+ * Field names appear once, and the transaction type is an index into {@code types}
+ * rather than a repeated string.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarStatementResponse {
+
+    public static final String MEDIA_TYPE = "application/vnd.payments.columnar+json";
+
+    private Long accountId;
+    private BigDecimal balance;
+    private List<String> types;
+    private long[] id;
+    private int[] type;
+    private BigDecimal[] amount;
+    private LocalDateTime[] createdAt;
+
+    public static ColumnarStatementResponse from(StatementResponse statement) {
+        List<TransactionDto> rows = statement.getTransactions();
+        int size = rows.size();
+        List<String> types = new ArrayList<>();
+        long[] id = new long[size];
+        int[] type = new int[size];
+        BigDecimal[] amount = new BigDecimal[size];
+        LocalDateTime[] createdAt = new LocalDateTime[size];
+
+        for (int i = 0; i < size; i++) {
+            TransactionDto row = rows.get(i);
+            int typeIndex = types.indexOf(row.getType());
+            if (typeIndex < 0) {
+                typeIndex = types.size();
+                types.add(row.getType());
+            }
+            id[i] = row.getId();
+            type[i] = typeIndex;
+            amount[i] = row.getAmount();
+            createdAt[i] = row.getCreatedAt();
+        }
+        return new ColumnarStatementResponse(statement.getAccountId(), statement.getBalance(), types, id, type, amount, createdAt);
+    }
+}
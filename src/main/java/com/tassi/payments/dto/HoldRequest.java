@@ -0,0 +1,15 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class HoldRequest {
+    private BigDecimal value;
+
+    // lifetime of the hold; the configured default when absent
+    private Long ttlSeconds;
+}
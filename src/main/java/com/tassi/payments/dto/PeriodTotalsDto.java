@@ -0,0 +1,17 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PeriodTotalsDto {
+    private Long depositCount;
+    private BigDecimal depositTotal;
+    private Long withdrawalCount;
+    private BigDecimal withdrawalTotal;
+}
@@ -0,0 +1,29 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioAccountDto {
+    private Long accountId;
+    private Integer accountType;
+    private Boolean active;
+    private BigDecimal balance;
+
+    // newest first; only present when a preview was requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<TransactionDto> recentTransactions;
+
+    // used by the portfolio query's constructor expression
+    public PortfolioAccountDto(Long accountId, Integer accountType, Boolean active, BigDecimal balance) {
+        this(accountId, accountType, active, balance, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PortfolioResponse {
+    private Long personId;
+    private BigDecimal totalBalance;
+    private List<PortfolioAccountDto> accounts;
+}
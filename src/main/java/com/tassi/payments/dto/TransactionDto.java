@@ -3,6 +3,8 @@ package com.tassi.payments.dto;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import com.tassi.payments.model.Transaction;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -15,4 +17,12 @@ public class TransactionDto {
     private String type;
     private BigDecimal amount;
     private LocalDateTime createdAt;
+
+    public static TransactionDto from(Transaction transaction) {
+        return new TransactionDto(
+            transaction.getIdTransaction(),
+            transaction.getValue().compareTo(BigDecimal.ZERO) >= 0 ? "Depósito" : "Saque",
+            transaction.getValue().abs(),
+            transaction.getTransactionDate());
+    }
 }
@@ -0,0 +1,21 @@
+package com.tassi.payments.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionEventDto {
+    private Long offset;
+    private Long accountId;
+    private Long transactionId;
+    private String type;
+    private BigDecimal amount;
+    private BigDecimal balance;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,28 @@
+package com.tassi.payments.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(AccountOperationEvent.NAME)
+@Label("Account Operation")
+@Description("One deposit, withdrawal, block/unblock or statement request, including the commit")
+@Category({"Payments"})
+@StackTrace(false)
+public class AccountOperationEvent extends Event {
+
+    public static final String NAME = "com.tassi.payments.AccountOperation";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Account Id")
+    long accountId;
+
+    // COMMITTED, ROLLED_BACK, OK (no transaction) or the exception's simple class name
+    @Label("Outcome")
+    String outcome;
+}
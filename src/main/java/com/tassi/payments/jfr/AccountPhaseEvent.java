@@ -0,0 +1,31 @@
+package com.tassi.payments.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name(AccountPhaseEvent.NAME)
+@Label("Account Operation Phase")
+@Description("One phase of an account operation (lock wait, read, validation, balance update, insert, commit...)")
+@Category({"Payments"})
+@StackTrace(false)
+public class AccountPhaseEvent extends Event {
+
+    public static final String NAME = "com.tassi.payments.AccountPhase";
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Account Id")
+    long accountId;
+
+    // OK, or the simple class name of the exception thrown during the phase
+    @Label("Outcome")
+    String outcome;
+}
@@ -0,0 +1,116 @@
+package com.tassi.payments.jfr;
+
+import org.springframework.core.Ordered;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Times one account operation as a sequence of phases and emits them as JFR events.
+ *
+ * Phases are consecutive: starting one ends the previous. When the operation runs in a
+ * transaction, a last "commit" phase covers the flush and the commit, and the operation's
+ * outcome is the transaction's. When neither event is enabled in the running recording
+ * (or there is no recording) every call is a field check.
+ */
+public final class OperationTrace {
+
+    private static final OperationTrace DISABLED = new OperationTrace(null);
+
+    private final AccountOperationEvent operation;
+    private AccountPhaseEvent phase;
+
+    private OperationTrace(AccountOperationEvent operation) {
+        this.operation = operation;
+    }
+
+    public static OperationTrace begin(String operation, Long accountId) {
+        AccountOperationEvent event = new AccountOperationEvent();
+        if (!event.isEnabled()) {
+            return DISABLED;
+        }
+        event.operation = operation;
+        event.accountId = accountId == null ? 0 : accountId;
+        event.begin();
+        return new OperationTrace(event);
+    }
+
+    // for callers that share phase code with a traced operation but are not traced themselves
+    public static OperationTrace none() {
+        return DISABLED;
+    }
+
+    public void phase(String name) {
+        if (operation == null) {
+            return;
+        }
+        endPhase("OK");
+        phase = new AccountPhaseEvent();
+        phase.operation = operation.operation;
+        phase.phase = name;
+        phase.accountId = operation.accountId;
+        phase.begin();
+    }
+
+    // the operation body returned; the outcome is settled by the commit, if there is one
+    public void success() {
+        if (operation == null) {
+            return;
+        }
+        endPhase("OK");
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            finish("OK");
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new CommitPhase());
+    }
+
+    public void failure(RuntimeException e) {
+        if (operation == null) {
+            return;
+        }
+        String outcome = e.getClass().getSimpleName();
+        endPhase(outcome);
+        finish(outcome);
+    }
+
+    private void endPhase(String outcome) {
+        if (phase != null) {
+            phase.outcome = outcome;
+            phase.commit();
+            phase = null;
+        }
+    }
+
+    private void finish(String outcome) {
+        operation.outcome = outcome;
+        operation.commit();
+    }
+
+    // ordered first so after-commit listeners (streams, caches) are not counted as commit time
+    private final class CommitPhase implements TransactionSynchronization, Ordered {
+
+        @Override
+        public int getOrder() {
+            return Ordered.HIGHEST_PRECEDENCE;
+        }
+
+        @Override
+        public void beforeCompletion() {
+            phase("commit");
+        }
+
+        @Override
+        public void afterCommit() {
+            endPhase("OK");
+            finish("COMMITTED");
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            if (status != STATUS_COMMITTED) {
+                endPhase("ROLLED_BACK");
+                finish("ROLLED_BACK");
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +20,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "ACCOUNTS")
+@Table(name = "ACCOUNTS", indexes = @Index(name = "IX_Account_Person", columnList = "id_person"))
 @Data 
 @NoArgsConstructor
 @AllArgsConstructor 
@@ -51,4 +52,63 @@ public class Account {
     @Column(name = "creation_date", nullable = false)
     private LocalDateTime creationDate;
 
+    // set while the account is in hot mode: the balance is ACCOUNTS.balance plus ACCOUNT_BALANCE_SLOTS
+    @Column(name = "slot_count")
+    @JsonIgnore
+    private Integer slotCount;
+
+    // promoted through the admin endpoint: automatic demotion leaves the account alone
+    @Column(name = "slots_pinned")
+    @JsonIgnore
+    private Boolean slotsPinned;
+
+    // sum of the account's active holds, not available for withdrawal; null on rows older than holds
+    @Column(name = "held_amount", precision = 18, scale = 2)
+    @JsonIgnore
+    private BigDecimal heldAmount = BigDecimal.ZERO;
+
+    // version token for conditional GETs: last transaction written plus a counter bumped on
+    // block/unblock and batch postings
+    @Column(name = "last_transaction_id")
+    @JsonIgnore
+    private Long lastTransactionId;
+
+    @Column(name = "state_version")
+    @JsonIgnore
+    private Long stateVersion = 0L;
+
+    @JsonIgnore
+    public String getVersionTag() {
+        return versionTag(lastTransactionId, stateVersion);
+    }
+
+    // rows created before these columns existed have nulls, read as 0
+    public static String versionTag(Long lastTransactionId, Long stateVersion) {
+        return versionTag(lastTransactionId, stateVersion, 0);
+    }
+
+    // orders two tags of one account: both parts only grow, and the transaction id is compared first
+    public static int compareVersionTags(String a, String b) {
+        int dot = a.indexOf('.');
+        int otherDot = b.indexOf('.');
+        int byTransaction = Long.compare(Long.parseLong(a.substring(0, dot)), Long.parseLong(b.substring(0, otherDot)));
+        if (byTransaction != 0) {
+            return byTransaction;
+        }
+        return Long.compare(Long.parseLong(a.substring(dot + 1)), Long.parseLong(b.substring(otherDot + 1)));
+    }
+
+    // hot accounts count the writes to their slot rows as state changes
+    public static String versionTag(Long lastTransactionId, Long stateVersion, long slotWrites) {
+        return (lastTransactionId == null ? 0 : lastTransactionId) + "." + ((stateVersion == null ? 0 : stateVersion) + slotWrites);
+    }
+
+    public BigDecimal heldOrZero() {
+        return heldAmount == null ? BigDecimal.ZERO : heldAmount;
+    }
+
+    public void bumpStateVersion() {
+        stateVersion = stateVersion == null ? 1L : stateVersion + 1;
+    }
+
 }
\ No newline at end of file
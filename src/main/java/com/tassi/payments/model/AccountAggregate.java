@@ -0,0 +1,68 @@
+package com.tassi.payments.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "ACCOUNT_AGGREGATES", uniqueConstraints = {
+    @UniqueConstraint(name = "UQ_Aggregate_Period_Slot", columnNames = {"id_account", "period_type", "period_start", "slot"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountAggregate {
+
+    public static final LocalDate ALL_TIME_START = LocalDate.of(1970, 1, 1);
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_aggregate")
+    private Long idAggregate;
+
+    @Column(name = "id_account", nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "period_type", nullable = false, length = 10)
+    private AggregatePeriod periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    // hot accounts spread their counters like their balance; a period's totals are the sum over slots
+    @ColumnDefault("0")
+    @Column(name = "slot", nullable = false)
+    private Integer slot = 0;
+
+    @Column(name = "deposit_count", nullable = false)
+    private Long depositCount = 0L;
+
+    @Column(name = "deposit_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal depositTotal = BigDecimal.ZERO;
+
+    @Column(name = "withdrawal_count", nullable = false)
+    private Long withdrawalCount = 0L;
+
+    @Column(name = "withdrawal_total", nullable = false, precision = 18, scale = 2)
+    private BigDecimal withdrawalTotal = BigDecimal.ZERO;
+
+    @Column(name = "last_activity")
+    private LocalDateTime lastActivity;
+
+}
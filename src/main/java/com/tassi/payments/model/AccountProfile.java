@@ -0,0 +1,47 @@
+package com.tassi.payments.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read-only view of the ACCOUNTS columns that never change after creation.
+ *
+ * Account itself is not second-level cached because its balance changes on every operation;
+ * this view can be, since nothing in the application updates these columns.
+ */
+@Entity
+@Immutable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "accountProfile")
+@Table(name = "ACCOUNTS")
+@Data
+@NoArgsConstructor
+public class AccountProfile {
+
+    @Id
+    @Column(name = "id_account")
+    private Long idAccount;
+
+    @Column(name = "id_person", nullable = false)
+    private Long personId;
+
+    @Column(name = "daily_withdrawal_limit", nullable = false, precision = 18, scale = 2)
+    private BigDecimal dailyWithdrawalLimit;
+
+    @Column(name = "account_type", nullable = false)
+    private Integer accountType;
+
+    @Column(name = "creation_date", nullable = false)
+    private LocalDateTime creationDate;
+
+}
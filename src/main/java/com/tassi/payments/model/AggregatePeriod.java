@@ -0,0 +1,8 @@
+package com.tassi.payments.model;
+
+// granularity of an AccountAggregate row; ALL uses a fixed period start
+public enum AggregatePeriod {
+    ALL,
+    DAY,
+    MONTH
+}
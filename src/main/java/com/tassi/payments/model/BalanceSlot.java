@@ -0,0 +1,51 @@
+package com.tassi.payments.model;
+
+import java.math.BigDecimal;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One share of a hot account's balance. The account total is ACCOUNTS.balance plus the sum of
+ * its slots; deposits land on a random slot so they lock different rows.
+ */
+@Entity
+@Table(name = "ACCOUNT_BALANCE_SLOTS", uniqueConstraints = {
+    @UniqueConstraint(name = "UQ_BalanceSlot_Account_Slot", columnNames = {"id_account", "slot"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_slot")
+    private Long idSlot;
+
+    @Column(name = "id_account", nullable = false)
+    private Long accountId;
+
+    @Column(name = "slot", nullable = false)
+    private Integer slot;
+
+    @Column(name = "balance", nullable = false, precision = 18, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    // highest transaction applied to this slot, folded into ACCOUNTS on demotion
+    @Column(name = "last_transaction_id")
+    private Long lastTransactionId;
+
+    // writes applied to this slot; their sum is part of the account version tag
+    @Column(name = "write_count")
+    private Long writeCount = 0L;
+
+}
@@ -0,0 +1,62 @@
+package com.tassi.payments.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Funds reserved on an account (card authorization). While ACTIVE its amount is part of
+ * ACCOUNTS.held_amount and unavailable to withdrawals; capturing debits the balance, releasing
+ * or expiring gives it back. Transitions are made under the account's row lock.
+ */
+@Entity
+@Table(name = "HOLDS", indexes = @Index(name = "IX_Hold_Status", columnList = "status, id_hold"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Hold {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_hold")
+    private Long idHold;
+
+    @Column(name = "id_account", nullable = false)
+    private Long accountId;
+
+    @Column(name = "amount", nullable = false, precision = 18, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 10)
+    private HoldStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    // set on capture: the amount debited (at most the hold) and its transaction
+    @Column(name = "captured_amount", precision = 18, scale = 2)
+    private BigDecimal capturedAmount;
+
+    @Column(name = "id_transaction")
+    private Long transactionId;
+
+}
@@ -0,0 +1,9 @@
+package com.tassi.payments.model;
+
+// a hold is ACTIVE until it is captured, released or expires; the last three are final
+public enum HoldStatus {
+    ACTIVE,
+    CAPTURED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,32 @@
+package com.tassi.payments.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Last stream offset handed out by the outbox relay. The single row is locked while a batch gets
+ * its offsets and until that batch commits, so offsets become visible in increasing order even
+ * when outbox rows commit out of id order.
+ */
+@Entity
+@Table(name = "OUTBOX_CURSOR")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxCursor {
+
+    public static final Integer STREAM = 1;
+
+    @Id
+    @Column(name = "id_cursor")
+    private Integer idCursor;
+
+    @Column(name = "last_offset", nullable = false)
+    private Long lastOffset;
+
+}
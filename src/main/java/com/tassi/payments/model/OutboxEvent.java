@@ -0,0 +1,58 @@
+package com.tassi.payments.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "OUTBOX_EVENTS", indexes = {
+    @Index(name = "IX_Outbox_Published", columnList = "published, id_event"),
+    @Index(name = "IX_Outbox_Account", columnList = "id_account, stream_offset")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_event")
+    private Long idEvent;
+
+    @Column(name = "id_account", nullable = false)
+    private Long accountId;
+
+    @Column(name = "id_transaction", nullable = false)
+    private Long transactionId;
+
+    @Column(name = "event_type", nullable = false, length = 20)
+    private String eventType;
+
+    @Column(name = "`value`", nullable = false, precision = 18, scale = 2)
+    private BigDecimal value;
+
+    @Column(name = "balance_after", nullable = false, precision = 18, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published", nullable = false)
+    private Boolean published = false;
+
+    // the stream offset handed to consumers, assigned in commit order when the row is published
+    // (ids are allocated before commit, so a lower id can become visible after a higher one)
+    @Column(name = "stream_offset", unique = true)
+    private Long streamOffset;
+
+}
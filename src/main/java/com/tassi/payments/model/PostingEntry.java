@@ -0,0 +1,47 @@
+package com.tassi.payments.model;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One posting applied to one account for one business date. Written in the same transaction
+ * as the posting itself, so an account is posted at most once per (kind, date) however often
+ * the date is run, and a date that failed or was skipped for an account can still be posted later.
+ */
+@Entity
+@Table(name = "POSTING_ENTRIES", uniqueConstraints = {
+    @UniqueConstraint(name = "UQ_PostingEntry_Account_Kind_Date", columnNames = {"id_account", "kind", "business_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_entry")
+    private Long idEntry;
+
+    @Column(name = "id_account", nullable = false)
+    private Long accountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 10)
+    private PostingKind kind;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+}
@@ -0,0 +1,7 @@
+package com.tassi.payments.model;
+
+// batch postings; each kind keeps its own "already posted for" date on ACCOUNTS
+public enum PostingKind {
+    INTEREST,
+    FEE
+}
@@ -0,0 +1,60 @@
+package com.tassi.payments.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Checkpoint of one posting run. A run that stops midway is resumed from lastAccountId;
+ * accounts in the interrupted chunks are protected from double posting by POSTING_ENTRIES.
+ */
+@Entity
+@Table(name = "POSTING_RUNS", uniqueConstraints = {
+    @UniqueConstraint(name = "UQ_PostingRun_Kind_Date", columnNames = {"kind", "business_date"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostingRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_run")
+    private Long idRun;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "kind", nullable = false, length = 10)
+    private PostingKind kind;
+
+    @Column(name = "business_date", nullable = false)
+    private LocalDate businessDate;
+
+    // every account up to and including this id has been processed
+    @Column(name = "last_account_id", nullable = false)
+    private Long lastAccountId = 0L;
+
+    @Column(name = "posted_count", nullable = false)
+    private Long postedCount = 0L;
+
+    @Column(name = "completed", nullable = false)
+    private Boolean completed = false;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+}
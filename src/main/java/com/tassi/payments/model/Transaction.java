@@ -11,6 +11,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -19,7 +20,10 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "TRANSACTIONS")
+@Table(name = "TRANSACTIONS", indexes = {
+    @Index(name = "IX_Transaction_Account_Date", columnList = "id_account, transaction_date"),
+    @Index(name = "IX_Transaction_Date", columnList = "transaction_date")
+})
 @Data 
 @NoArgsConstructor
 @AllArgsConstructor
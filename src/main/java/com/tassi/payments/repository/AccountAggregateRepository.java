@@ -0,0 +1,60 @@
+package com.tassi.payments.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.tassi.payments.model.AccountAggregate;
+import com.tassi.payments.model.AggregatePeriod;
+
+@Repository
+public interface AccountAggregateRepository extends JpaRepository<AccountAggregate, Long> {
+
+    List<AccountAggregate> findByAccountIdAndPeriodStartIn(Long accountId, Collection<LocalDate> periodStarts);
+
+    // the ALL, MONTH and DAY rows of one transaction in a single statement; returns how many of the three exist.
+    // Flushes first so the ACCOUNTS row update (and its row lock) precedes the aggregate write
+    @Modifying(flushAutomatically = true)
+    @Query("update AccountAggregate a set "
+         + "a.depositCount = a.depositCount + :depositCount, a.depositTotal = a.depositTotal + :depositTotal, "
+         + "a.withdrawalCount = a.withdrawalCount + :withdrawalCount, a.withdrawalTotal = a.withdrawalTotal + :withdrawalTotal, "
+         + "a.lastActivity = :activity "
+         + "where a.accountId = :accountId and a.slot = :slot and ("
+         + "(a.periodType = com.tassi.payments.model.AggregatePeriod.ALL and a.periodStart = :allTimeStart) or "
+         + "(a.periodType = com.tassi.payments.model.AggregatePeriod.MONTH and a.periodStart = :monthStart) or "
+         + "(a.periodType = com.tassi.payments.model.AggregatePeriod.DAY and a.periodStart = :day))")
+    int incrementPeriods(Long accountId, int slot, LocalDate allTimeStart, LocalDate monthStart, LocalDate day,
+                         long depositCount, BigDecimal depositTotal,
+                         long withdrawalCount, BigDecimal withdrawalTotal,
+                         LocalDateTime activity);
+
+    // which of the ALL, MONTH and DAY rows exist, for the first transaction of a period
+    @Query("select a.periodType from AccountAggregate a where a.accountId = :accountId and a.slot = :slot and ("
+         + "(a.periodType = com.tassi.payments.model.AggregatePeriod.ALL and a.periodStart = :allTimeStart) or "
+         + "(a.periodType = com.tassi.payments.model.AggregatePeriod.MONTH and a.periodStart = :monthStart) or "
+         + "(a.periodType = com.tassi.payments.model.AggregatePeriod.DAY and a.periodStart = :day))")
+    List<AggregatePeriod> findPeriodTypes(Long accountId, int slot, LocalDate allTimeStart, LocalDate monthStart, LocalDate day);
+
+    // plain insert instead of save() so no managed entity goes stale under later increments
+    @Modifying
+    @Query("insert into AccountAggregate (accountId, periodType, periodStart, slot, "
+         + "depositCount, depositTotal, withdrawalCount, withdrawalTotal, lastActivity) "
+         + "values (:accountId, :periodType, :periodStart, :slot, "
+         + ":depositCount, :depositTotal, :withdrawalCount, :withdrawalTotal, :activity)")
+    int insert(Long accountId, AggregatePeriod periodType, LocalDate periodStart, int slot,
+               long depositCount, BigDecimal depositTotal,
+               long withdrawalCount, BigDecimal withdrawalTotal,
+               LocalDateTime activity);
+
+    @Modifying
+    @Query("delete from AccountAggregate a where a.accountId = :accountId")
+    int deleteByAccountId(Long accountId);
+
+}
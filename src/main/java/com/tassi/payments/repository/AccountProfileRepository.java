@@ -0,0 +1,10 @@
+package com.tassi.payments.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.tassi.payments.model.AccountProfile;
+
+@Repository
+public interface AccountProfileRepository extends JpaRepository<AccountProfile, Long> {
+}
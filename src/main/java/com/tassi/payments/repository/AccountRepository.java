@@ -1,10 +1,74 @@
 package com.tassi.payments.repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.tassi.payments.dto.PortfolioAccountDto;
 import com.tassi.payments.model.Account;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
-}
\ No newline at end of file
+
+    // every account of a person with its total balance (hot-account slots included), in one query
+    @Query("select new com.tassi.payments.dto.PortfolioAccountDto(a.idAccount, a.accountType, a.isActiveFlag, "
+         + "a.balance + coalesce((select sum(s.balance) from BalanceSlot s where s.accountId = a.idAccount), 0)) "
+         + "from Account a where a.person.idPerson = :personId order by a.idAccount")
+    List<PortfolioAccountDto> findPortfolio(Long personId);
+
+    // keyset paging over account ids for batch jobs
+    @Query("select a.idAccount from Account a where a.idAccount > :afterId order by a.idAccount")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
+
+    // row-locked read for balance updates; concurrent deposits/withdrawals on the account queue here
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from Account a where a.idAccount = :accountId")
+    Optional<Account> findByIdForUpdate(Long accountId);
+
+    // shared row lock for hot-account deposits: they don't wait for each other, but do for a block/unblock
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select a from Account a where a.idAccount = :accountId")
+    Optional<Account> findByIdForShare(Long accountId);
+
+    // 0 for a regular account, otherwise the number of balance slots; read without loading or locking the row
+    @Query("select coalesce(a.slotCount, 0) from Account a where a.idAccount = :accountId")
+    Optional<Integer> findSlotCount(Long accountId);
+
+    // slotted accounts the monitor may demote; manual promotions stay until demoted manually
+    @Query("select a.idAccount from Account a where a.slotCount > 0 and (a.slotsPinned is null or a.slotsPinned = false)")
+    List<Long> findAutoSlottedIds();
+
+    @Query(value = "select balance from ACCOUNTS where id_account = :accountId for update", nativeQuery = true)
+    BigDecimal lockBalance(Long accountId);
+
+    // base row plus slots in one statement, so a concurrent consolidation is seen entirely or not at all
+    @Query("select a.balance + coalesce((select sum(s.balance) from BalanceSlot s where s.accountId = a.idAccount), 0) "
+         + "from Account a where a.idAccount = :accountId")
+    BigDecimal findTotalBalance(Long accountId);
+
+    @Query("select a.lastTransactionId from Account a where a.idAccount = :accountId")
+    Long findLastTransactionId(Long accountId);
+
+    @Modifying
+    @Query("update Account a set a.balance = a.balance + :delta, a.lastTransactionId = :transactionId "
+         + "where a.idAccount = :accountId")
+    int applyDelta(Long accountId, BigDecimal delta, Long transactionId);
+
+    @Modifying
+    @Query("update Account a set a.slotCount = :slotCount, a.slotsPinned = :pinned, "
+         + "a.stateVersion = coalesce(a.stateVersion, 0) + :versionIncrement where a.idAccount = :accountId")
+    int updateSlotCount(Long accountId, Integer slotCount, Boolean pinned, long versionIncrement);
+
+    @Modifying
+    @Query("update Account a set a.slotsPinned = true where a.idAccount = :accountId")
+    int pinSlots(Long accountId);
+}
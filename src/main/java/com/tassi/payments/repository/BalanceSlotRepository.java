@@ -0,0 +1,49 @@
+package com.tassi.payments.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.tassi.payments.model.BalanceSlot;
+
+@Repository
+public interface BalanceSlotRepository extends JpaRepository<BalanceSlot, Long> {
+
+    @Modifying
+    @Query("update BalanceSlot s set s.balance = s.balance + :value, s.lastTransactionId = :transactionId, "
+         + "s.writeCount = coalesce(s.writeCount, 0) + 1 where s.accountId = :accountId and s.slot = :slot")
+    int add(Long accountId, int slot, BigDecimal value, Long transactionId);
+
+    // 0 when the slot does not hold enough; the caller then consolidates
+    @Modifying
+    @Query("update BalanceSlot s set s.balance = s.balance - :value, s.lastTransactionId = :transactionId, "
+         + "s.writeCount = coalesce(s.writeCount, 0) + 1 where s.accountId = :accountId and s.slot = :slot and s.balance >= :value")
+    int take(Long accountId, int slot, BigDecimal value, Long transactionId);
+
+    // locks every slot of the account (aggregates cannot be combined with FOR UPDATE, so the sum is done by the caller)
+    @Query(value = "select balance from ACCOUNT_BALANCE_SLOTS where id_account = :accountId order by slot for update", nativeQuery = true)
+    List<BigDecimal> lockBalances(Long accountId);
+
+    @Query("select coalesce(sum(s.balance), 0) from BalanceSlot s where s.accountId = :accountId")
+    BigDecimal sumBalance(Long accountId);
+
+    @Query("select max(s.lastTransactionId) from BalanceSlot s where s.accountId = :accountId")
+    Long maxTransactionId(Long accountId);
+
+    // only grows while the account is slotted, however the slot commits interleave
+    @Query("select coalesce(sum(s.writeCount), 0) from BalanceSlot s where s.accountId = :accountId")
+    long sumWriteCount(Long accountId);
+
+    @Modifying
+    @Query("update BalanceSlot s set s.balance = 0 where s.accountId = :accountId")
+    int clear(Long accountId);
+
+    @Modifying
+    @Query("delete from BalanceSlot s where s.accountId = :accountId")
+    int deleteByAccountId(Long accountId);
+
+}
@@ -0,0 +1,24 @@
+package com.tassi.payments.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.tassi.payments.model.Hold;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // read before the account is locked, so the hold itself is loaded only under that lock
+    @Query("select h.accountId from Hold h where h.idHold = :holdId")
+    Optional<Long> findAccountId(Long holdId);
+
+    // (id, expiresAt) of active holds, keyset-paged by id for the expiry wheel's recovery
+    @Query("select h.idHold, h.expiresAt from Hold h where h.status = com.tassi.payments.model.HoldStatus.ACTIVE "
+         + "and h.idHold > :afterId order by h.idHold")
+    List<Object[]> findActiveAfter(Long afterId, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.tassi.payments.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.tassi.payments.model.OutboxCursor;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, Integer> {
+
+    // held until the relay batch commits; relays on other instances queue here
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from OutboxCursor c where c.idCursor = :idCursor")
+    Optional<OutboxCursor> findByIdForUpdate(Integer idCursor);
+
+}
@@ -0,0 +1,37 @@
+package com.tassi.payments.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.tassi.payments.model.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByPublishedFalseOrderByIdEventAsc(Pageable pageable);
+
+    List<OutboxEvent> findByAccountIdAndStreamOffsetGreaterThanOrderByStreamOffsetAsc(Long accountId, Long afterOffset, Pageable pageable);
+
+    @Query("select coalesce(max(e.idEvent), 0) from OutboxEvent e")
+    long findMaxIdEvent();
+
+    @Query("select coalesce(max(e.streamOffset), 0) from OutboxEvent e")
+    long findMaxStreamOffset();
+
+    // which of these accounts got events in (after, upTo]
+    @Query("select distinct e.accountId from OutboxEvent e where e.accountId in :accountIds "
+         + "and e.streamOffset > :after and e.streamOffset <= :upTo")
+    List<Long> findAccountIdsWithEventsBetween(Collection<Long> accountIds, long after, long upTo);
+
+    // rows published before stream offsets existed keep their id as offset, so saved offsets stay valid
+    @Modifying
+    @Query("update OutboxEvent e set e.streamOffset = e.idEvent where e.published = true and e.streamOffset is null")
+    int backfillStreamOffsets();
+
+}
@@ -1,10 +1,21 @@
 package com.tassi.payments.repository;
 
+import java.util.List;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.tassi.payments.model.Person;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
-}
\ No newline at end of file
+
+    // cached ids, rows come from the person region; invalidated on any PEOPLE write
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Person> findAll();
+}
@@ -0,0 +1,37 @@
+package com.tassi.payments.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tassi.payments.model.PostingKind;
+import com.tassi.payments.model.PostingRun;
+
+@Repository
+public interface PostingRunRepository extends JpaRepository<PostingRun, Long> {
+
+    Optional<PostingRun> findByKindAndBusinessDate(PostingKind kind, LocalDate businessDate);
+
+    List<PostingRun> findByKindAndCompletedFalseOrderByBusinessDateAsc(PostingKind kind);
+
+    Optional<PostingRun> findFirstByKindOrderByBusinessDateDesc(PostingKind kind);
+
+    @Transactional
+    @Modifying
+    @Query("update PostingRun r set r.lastAccountId = :lastAccountId, r.postedCount = r.postedCount + :posted "
+         + "where r.idRun = :idRun")
+    int advance(Long idRun, Long lastAccountId, long posted);
+
+    @Transactional
+    @Modifying
+    @Query("update PostingRun r set r.completed = true, r.finishedAt = :finishedAt where r.idRun = :idRun")
+    int complete(Long idRun, LocalDateTime finishedAt);
+
+}
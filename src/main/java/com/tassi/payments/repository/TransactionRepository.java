@@ -1,8 +1,10 @@
 package com.tassi.payments.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.tassi.payments.model.Transaction;
@@ -13,4 +15,35 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
 
     List<Transaction> findByAccount_IdAccountOrderByTransactionDateDesc(Long accountId);
 
+    // closed statement pages (days), newest first
+    @Query("select t from Transaction t where t.account.idAccount = :accountId "
+         + "and t.transactionDate >= :from and t.transactionDate < :to "
+         + "order by t.transactionDate desc, t.idTransaction desc")
+    List<Transaction> findPage(Long accountId, LocalDateTime from, LocalDateTime to);
+
+    // the days with transactions before a point in time and how many each has, newest first;
+    // counted on the (id_account, transaction_date) index
+    @Query("select cast(t.transactionDate as LocalDate), count(t) from Transaction t "
+         + "where t.account.idAccount = :accountId and t.transactionDate < :before "
+         + "group by cast(t.transactionDate as LocalDate) order by cast(t.transactionDate as LocalDate) desc")
+    List<Object[]> findDayCounts(Long accountId, LocalDateTime before);
+
+    // the same for the days in [from, before), to extend an index of the earlier ones
+    @Query("select cast(t.transactionDate as LocalDate), count(t) from Transaction t "
+         + "where t.account.idAccount = :accountId and t.transactionDate >= :from and t.transactionDate < :before "
+         + "group by cast(t.transactionDate as LocalDate) order by cast(t.transactionDate as LocalDate) desc")
+    List<Object[]> findDayCountsBetween(Long accountId, LocalDateTime from, LocalDateTime before);
+
+    // the latest transactions of each of a person's accounts, top-k per account in one windowed query
+    @Query(value = "select * from (select t.*, row_number() over "
+         + "(partition by t.id_account order by t.transaction_date desc, t.id_transaction desc) as rn "
+         + "from TRANSACTIONS t join ACCOUNTS a on a.id_account = t.id_account where a.id_person = :personId) ranked "
+         + "where rn <= :limit order by id_account, rn", nativeQuery = true)
+    List<Transaction> findRecentByPerson(Long personId, int limit);
+
+    // the open tail (today), newest first
+    @Query("select t from Transaction t where t.account.idAccount = :accountId and t.transactionDate >= :from "
+         + "order by t.transactionDate desc, t.idTransaction desc")
+    List<Transaction> findSince(Long accountId, LocalDateTime from);
+
 }
@@ -0,0 +1,8 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+
+// published by AccountServiceImpl inside the transaction; listeners should use AFTER_COMMIT.
+// version is null when the transaction can't know it (concurrent hot-account deposits): re-read it
+public record AccountChangedEvent(Long accountId, Long personId, BigDecimal balance, boolean active, String version) {
+}
@@ -2,7 +2,9 @@ package com.tassi.payments.service;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
+import com.tassi.payments.dto.PortfolioResponse;
 import com.tassi.payments.model.Account;
 import com.tassi.payments.model.Transaction;
 
@@ -20,6 +22,16 @@ public interface AccountService {
     // get balance
     BigDecimal getBalance(Long accountId);
 
+    // get total balance and version, slots included
+    AccountState getState(Long accountId);
+
+    // all accounts of a person with a consolidated total, optionally with the last `recent` transactions of each;
+    // empty when the person does not exist
+    Optional<PortfolioResponse> getPortfolio(Long personId, int recent);
+
+    // get account
+    Account getAccount(Long accountId);
+
     // block account
     Account blockAccount(Long accountId);
 
@@ -0,0 +1,12 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+
+// what readers see of an account: ledger balance (including hot-account slots), the part of it
+// reserved by holds, and its version tag
+public record AccountState(Long accountId, Long personId, BigDecimal balance, BigDecimal held, boolean active, String version) {
+
+    public BigDecimal available() {
+        return balance.subtract(held);
+    }
+}
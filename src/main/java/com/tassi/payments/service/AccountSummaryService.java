@@ -0,0 +1,29 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import com.tassi.payments.dto.AccountSummaryResponse;
+
+public interface AccountSummaryService {
+
+    // apply one transaction to the running aggregates (signed value, negative = withdrawal)
+    void record(Long accountId, BigDecimal value, LocalDateTime transactionDate);
+
+    // same, on one counter slot of a hot account so concurrent deposits do not share aggregate rows
+    void record(Long accountId, BigDecimal value, LocalDateTime transactionDate, int slot);
+
+    // batch variant for bulk postings: one value per account, all at the same time; joins the caller's transaction
+    void recordAll(Map<Long, BigDecimal> values, LocalDateTime transactionDate);
+
+    // read precomputed totals
+    AccountSummaryResponse getSummary(Long accountId);
+
+    // recompute one account's aggregates from TRANSACTIONS
+    void rebuild(Long accountId);
+
+    // recompute every account, returns the number of accounts processed
+    int rebuildAll();
+
+}
@@ -0,0 +1,81 @@
+package com.tassi.payments.service;
+
+import java.util.Collection;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.repository.AccountRepository;
+
+/**
+ * Current version tag per account, so a conditional GET can answer 304 without a query.
+ *
+ * Local commits replace the entry with the committed version unless a newer one is already
+ * there (listeners of concurrent commits can run in any order); changes made by other
+ * instances evict it (see CacheCoherenceListener). Misses are loaded from the primary,
+ * never from a replica, since a lagging replica would hand out an old tag for new data.
+ */
+@Component
+public class AccountVersionCache implements NodeCache {
+
+    private final AccountRepository accountRepository;
+    private final BalanceSlotService balanceSlotService;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<Long, String> versions;
+
+    public AccountVersionCache(AccountRepository accountRepository,
+                               BalanceSlotService balanceSlotService,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${payments.etag.cache-size:200000}") long maximumSize) {
+        this.accountRepository = accountRepository;
+        this.balanceSlotService = balanceSlotService;
+        // read-write template so the routing data source stays on the primary
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.versions = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    // null when the account does not exist
+    public String get(Long accountId) {
+        return versions.get(accountId, this::load);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountChanged(AccountChangedEvent event) {
+        if (event.version() == null) {
+            // reloaded from the committed rows on the next read
+            versions.invalidate(event.accountId());
+            return;
+        }
+        versions.asMap().merge(event.accountId(), event.version(),
+            (cached, committed) -> Account.compareVersionTags(cached, committed) >= 0 ? cached : committed);
+    }
+
+    @Override
+    public void evictAccounts(Collection<Long> accountIds) {
+        versions.invalidateAll(accountIds);
+    }
+
+    @Override
+    public void evictPersons(Collection<Long> personIds) {
+        // versions are per account
+    }
+
+    @Override
+    public void evictAll() {
+        versions.invalidateAll();
+    }
+
+    private String load(Long accountId) {
+        // slotted accounts take their last transaction id from the slot rows too
+        return transactionTemplate.execute(status -> accountRepository.findById(accountId)
+            .map(account -> balanceSlotService.state(account).version())
+            .orElse(null));
+    }
+}
@@ -0,0 +1,142 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tassi.payments.model.Account;
+import com.tassi.payments.model.BalanceSlot;
+import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.BalanceSlotRepository;
+
+/**
+ * Hot-account mode: the balance of a promoted account is ACCOUNTS.balance plus N slot rows.
+ *
+ * Deposits add to a random slot, so concurrent deposits lock different rows. A withdrawal takes
+ * from a random slot when that slot holds enough; otherwise it locks the account and all slots
+ * and folds them into ACCOUNTS.balance first. Lock order is always ACCOUNTS, then slots: deposits
+ * hold a shared lock on the ACCOUNTS row and withdrawals an exclusive one, so a block or unblock
+ * waits for in-flight slot operations instead of racing their active check.
+ */
+@Component
+public class BalanceSlotService {
+
+    private final AccountRepository accountRepository;
+    private final BalanceSlotRepository balanceSlotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BalanceSlotService(AccountRepository accountRepository,
+                              BalanceSlotRepository balanceSlotRepository,
+                              ApplicationEventPublisher eventPublisher) {
+        this.accountRepository = accountRepository;
+        this.balanceSlotRepository = balanceSlotRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // false when the slot does not exist; callers hold the shared ACCOUNTS lock, so no demotion runs meanwhile
+    public boolean deposit(Long accountId, int slot, BigDecimal value, Long transactionId) {
+        return balanceSlotRepository.add(accountId, slot, value, transactionId) == 1;
+    }
+
+    // returns the slot charged (0 after consolidation); throws when the total balance is insufficient
+    public int withdraw(Long accountId, int slotCount, BigDecimal value, Long transactionId) {
+        int slot = ThreadLocalRandom.current().nextInt(slotCount);
+        if (balanceSlotRepository.take(accountId, slot, value, transactionId) == 1) {
+            return slot;
+        }
+
+        BigDecimal base = accountRepository.lockBalance(accountId);
+        BigDecimal moved = sum(balanceSlotRepository.lockBalances(accountId));
+        if (base.add(moved).compareTo(value) < 0) {
+            throw new IllegalStateException("Insufficient balance for withdrawal.");
+        }
+        balanceSlotRepository.clear(accountId);
+        accountRepository.applyDelta(accountId, moved.subtract(value), transactionId);
+        return 0;
+    }
+
+    // total balance and version as of this transaction; no queries for regular accounts. For hot
+    // accounts the ACCOUNTS columns are re-read, since bulk updates bypass the loaded entity, and
+    // the version counts slot writes: a max of slot transaction ids would not move when a lower id
+    // commits after a higher one
+    public AccountState state(Account account) {
+        BigDecimal balance = account.getBalance();
+        Long lastTransactionId = account.getLastTransactionId();
+        long slotWrites = 0;
+        if (account.getSlotCount() != null && account.getSlotCount() > 0) {
+            balance = accountRepository.findTotalBalance(account.getIdAccount());
+            lastTransactionId = accountRepository.findLastTransactionId(account.getIdAccount());
+            slotWrites = balanceSlotRepository.sumWriteCount(account.getIdAccount());
+        }
+        return new AccountState(account.getIdAccount(),
+            account.getPerson() == null ? null : account.getPerson().getIdPerson(),
+            balance, account.heldOrZero(), account.getIsActiveFlag(),
+            Account.versionTag(lastTransactionId, account.getStateVersion(), slotWrites));
+    }
+
+    // a manual promotion (admin endpoint) is pinned, also when the account was already promoted automatically
+    @Transactional
+    public void promote(Long accountId, int slotCount) {
+        promote(accountId, slotCount, true);
+    }
+
+    @Transactional
+    public void promote(Long accountId, int slotCount, boolean pinned) {
+        accountRepository.lockBalance(accountId);
+        if (accountRepository.findSlotCount(accountId).orElseThrow(() -> new IllegalArgumentException("Account not found.")) > 0) {
+            if (pinned) {
+                accountRepository.pinSlots(accountId);
+            }
+            return;
+        }
+        List<BalanceSlot> slots = new ArrayList<>(slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            slots.add(new BalanceSlot(null, accountId, i, BigDecimal.ZERO, null, 0L));
+        }
+        balanceSlotRepository.saveAll(slots);
+        accountRepository.updateSlotCount(accountId, slotCount, pinned, 1);
+        publish(accountId);
+    }
+
+    @Transactional
+    public void demote(Long accountId) {
+        BigDecimal base = accountRepository.lockBalance(accountId);
+        if (base == null) {
+            throw new IllegalArgumentException("Account not found.");
+        }
+        BigDecimal moved = sum(balanceSlotRepository.lockBalances(accountId));
+        Long lastTransactionId = max(accountRepository.findLastTransactionId(accountId),
+            balanceSlotRepository.maxTransactionId(accountId));
+        // the slot writes move into the state version, so the version does not go back
+        long slotWrites = balanceSlotRepository.sumWriteCount(accountId);
+
+        accountRepository.applyDelta(accountId, moved, lastTransactionId);
+        balanceSlotRepository.deleteByAccountId(accountId);
+        accountRepository.updateSlotCount(accountId, null, null, slotWrites + 1);
+        publish(accountId);
+    }
+
+    // the row was changed through bulk updates, so it is re-read before building the event
+    private void publish(Long accountId) {
+        Account account = accountRepository.findById(accountId).orElseThrow();
+        AccountState state = state(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(state.accountId(), state.personId(),
+            state.balance(), state.active(), state.version()));
+    }
+
+    private static BigDecimal sum(List<BigDecimal> values) {
+        return values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    private static Long max(Long a, Long b) {
+        if (a == null) {
+            return b;
+        }
+        return b == null ? a : Math.max(a, b);
+    }
+}
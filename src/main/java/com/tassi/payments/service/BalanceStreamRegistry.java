@@ -0,0 +1,232 @@
+package com.tassi.payments.service;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.tassi.payments.dto.BalanceUpdateDto;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.repository.AccountRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fan-out of committed balance changes to SSE subscribers.
+ *
+ * Idle subscribers hold no thread (async servlet + SseEmitter). Writes run on virtual threads,
+ * and a burst of changes on one account collapses into the latest balance per subscriber.
+ * Every update carries the account version, and a subscriber never sends a version older than
+ * one it already sent or has pending, so the snapshot read on subscribe can't overwrite a change
+ * committed meanwhile. Changes whose version the committing transaction couldn't know (see
+ * AccountChangedEvent) are re-read from the primary once committed.
+ */
+@Component
+public class BalanceStreamRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceStreamRegistry.class);
+
+    private final AccountRepository accountRepository;
+    private final BalanceSlotService balanceSlotService;
+    private final TransactionTemplate transactionTemplate;
+    private final long timeoutMillis;
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Long> reloads = ConcurrentHashMap.newKeySet();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public BalanceStreamRegistry(AccountRepository accountRepository,
+                                 BalanceSlotService balanceSlotService,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${payments.balance-stream.timeout-ms:0}") long timeoutMillis) {
+        this.accountRepository = accountRepository;
+        this.balanceSlotService = balanceSlotService;
+        // read-write template so the routing data source stays on the primary
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    // registered before the current balance is read, so a change committed after the read is
+    // still delivered; one committed before it is already in the snapshot
+    public SseEmitter subscribe(Long accountId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(accountId, emitter);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.computeIfAbsent(accountId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        BalanceUpdateDto current;
+        try {
+            current = load(accountId);
+        } catch (RuntimeException e) {
+            remove(subscriber);
+            throw e;
+        }
+        if (current == null) {
+            remove(subscriber);
+            throw new IllegalArgumentException("Account not found.");
+        }
+        subscriber.offer(current);
+        return emitter;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountChanged(AccountChangedEvent event) {
+        Set<Subscriber> accountSubscribers = subscribers.get(event.accountId());
+        if (accountSubscribers == null) {
+            return;
+        }
+        if (event.version() == null) {
+            reload(event.accountId());
+            return;
+        }
+        BalanceUpdateDto update = new BalanceUpdateDto(event.accountId(), event.balance(), event.active(), event.version());
+        accountSubscribers.forEach(s -> s.offer(update));
+    }
+
+    // keeps proxies from closing idle streams and detects dead connections
+    @Scheduled(fixedDelayString = "${payments.balance-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(s -> sender.execute(s::heartbeat)));
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    // one re-read per account at a time; a change committed while it runs schedules another
+    private void reload(Long accountId) {
+        if (!reloads.add(accountId)) {
+            return;
+        }
+        sender.execute(() -> {
+            reloads.remove(accountId);
+            try {
+                BalanceUpdateDto update = load(accountId);
+                Set<Subscriber> accountSubscribers = subscribers.get(accountId);
+                if (update != null && accountSubscribers != null) {
+                    accountSubscribers.forEach(s -> s.offer(update));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not re-read the balance of account {} for its streams", accountId, e);
+            }
+        });
+    }
+
+    // null when the account does not exist
+    private BalanceUpdateDto load(Long accountId) {
+        return transactionTemplate.execute(status -> accountRepository.findById(accountId)
+            .map(balanceSlotService::state)
+            .map(state -> new BalanceUpdateDto(accountId, state.balance(), state.active(), state.version()))
+            .orElse(null));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.accountId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private static boolean newer(BalanceUpdateDto update, BalanceUpdateDto than) {
+        return than == null || Account.compareVersionTags(update.getVersion(), than.getVersion()) > 0;
+    }
+
+    private final class Subscriber {
+
+        private final Long accountId;
+        private final SseEmitter emitter;
+        private final AtomicReference<BalanceUpdateDto> pending = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // a lock rather than synchronized: sends block on I/O and run on virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        private BalanceUpdateDto lastSent;
+
+        private Subscriber(Long accountId, SseEmitter emitter) {
+            this.accountId = accountId;
+            this.emitter = emitter;
+        }
+
+        // only the latest version matters, so a newer offer replaces one not yet sent
+        private void offer(BalanceUpdateDto update) {
+            BalanceUpdateDto previous = pending.getAndAccumulate(update, (current, offered) -> newer(offered, current) ? offered : current);
+            if (previous != null && !newer(update, previous)) {
+                return;
+            }
+            if (scheduled.compareAndSet(false, true)) {
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                BalanceUpdateDto update;
+                while ((update = pending.getAndSet(null)) != null) {
+                    sendIfNewer(update);
+                }
+            } finally {
+                scheduled.set(false);
+                // an offer may have landed between the last poll and the reset
+                if (pending.get() != null && scheduled.compareAndSet(false, true)) {
+                    sender.execute(this::drain);
+                }
+            }
+        }
+
+        private void sendIfNewer(BalanceUpdateDto update) {
+            lock.lock();
+            try {
+                if (!newer(update, lastSent)) {
+                    return;
+                }
+                if (send(SseEmitter.event().name("balance").data(update))) {
+                    lastSent = update;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void heartbeat() {
+            lock.lock();
+            try {
+                send(SseEmitter.event().comment("heartbeat"));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
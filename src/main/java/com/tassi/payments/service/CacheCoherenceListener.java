@@ -0,0 +1,157 @@
+package com.tassi.payments.service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * LISTENs for cache coherence notifications from the other instances and evicts the local caches.
+ *
+ * Uses its own connection outside the pool, since LISTEN is bound to the session. Notifications
+ * sent while the connection is down are lost, so every (re)connect starts with a full flush.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.cache-coherence.enabled", havingValue = "true")
+public class CacheCoherenceListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheCoherenceListener.class);
+    private static final Pattern CHANNEL = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final DataSourceProperties dataSourceProperties;
+    private final List<NodeCache> caches;
+    private final String nodeId;
+    private final String channel;
+    private final long reconnectDelayMillis;
+
+    private volatile boolean running = true;
+    private volatile Connection connection;
+    private Thread thread;
+
+    public CacheCoherenceListener(DataSourceProperties dataSourceProperties,
+                                  List<NodeCache> caches,
+                                  CacheCoherencePublisher publisher,
+                                  @Value("${payments.cache-coherence.channel:payments_cache}") String channel,
+                                  @Value("${payments.cache-coherence.reconnect-delay-ms:1000}") long reconnectDelayMillis) {
+        this.dataSourceProperties = dataSourceProperties;
+        this.caches = caches;
+        this.nodeId = publisher.nodeId();
+        this.channel = checkChannel(channel);
+        this.reconnectDelayMillis = reconnectDelayMillis;
+    }
+
+    // the channel name is not a bind parameter in LISTEN, so only plain identifiers are accepted
+    static String checkChannel(String channel) {
+        if (!CHANNEL.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid cache coherence channel: " + channel);
+        }
+        return channel;
+    }
+
+    @PostConstruct
+    public void start() {
+        thread = Thread.ofVirtual().name("cache-coherence-listener").start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        closeQuietly();
+        thread.interrupt();
+    }
+
+    void apply(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.nodeId())) {
+            return;
+        }
+        for (NodeCache cache : caches) {
+            if (invalidation.flushAll()) {
+                cache.evictAll();
+                continue;
+            }
+            if (!invalidation.accountIds().isEmpty()) {
+                cache.evictAccounts(invalidation.accountIds());
+            }
+            if (!invalidation.personIds().isEmpty()) {
+                cache.evictPersons(invalidation.personIds());
+            }
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                listen();
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache coherence listener disconnected, reconnecting in {} ms", reconnectDelayMillis, e);
+                }
+            } finally {
+                closeQuietly();
+            }
+            sleep();
+        }
+    }
+
+    private void listen() throws SQLException {
+        connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+
+        // anything committed elsewhere while we were not listening is unknown
+        caches.forEach(NodeCache::evictAll);
+        log.info("Cache coherence listener subscribed to {}", channel);
+
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(10_000);
+            if (notifications == null) {
+                continue;
+            }
+            for (PGNotification notification : notifications) {
+                try {
+                    apply(CacheInvalidation.decode(notification.getParameter()));
+                } catch (RuntimeException e) {
+                    log.warn("Ignoring malformed cache coherence payload: {}", notification.getParameter(), e);
+                }
+            }
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(reconnectDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeQuietly() {
+        Connection current = connection;
+        connection = null;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException ignored) {
+                // already broken
+            }
+        }
+    }
+}
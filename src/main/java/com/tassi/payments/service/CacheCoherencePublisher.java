@@ -0,0 +1,95 @@
+package com.tassi.payments.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Sends committed account and person changes to the other instances over Postgres NOTIFY.
+ *
+ * Balance changes only touch the per-account version cache; the second-level cache holds the
+ * immutable account profiles and the persons, so persons are sent from the person write path
+ * only. Changes are collected into sets and flushed on a short interval, so a burst on a hot account
+ * costs one id in one notification rather than one NOTIFY per operation.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.cache-coherence.enabled", havingValue = "true")
+public class CacheCoherencePublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheCoherencePublisher.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String channel;
+    private final int maxBatchIds;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final AtomicReference<Set<Long>> pendingAccounts = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+    private final AtomicReference<Set<Long>> pendingPersons = new AtomicReference<>(ConcurrentHashMap.newKeySet());
+
+    public CacheCoherencePublisher(JdbcTemplate jdbcTemplate,
+                                   @Value("${payments.cache-coherence.channel:payments_cache}") String channel,
+                                   @Value("${payments.cache-coherence.max-batch-ids:20000}") int maxBatchIds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.channel = CacheCoherenceListener.checkChannel(channel);
+        this.maxBatchIds = maxBatchIds;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAccountChanged(AccountChangedEvent event) {
+        pendingAccounts.get().add(event.accountId());
+    }
+
+    // fallbackExecution: the person controller saves through the repository's own transaction
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPersonChanged(PersonChangedEvent event) {
+        pendingPersons.get().add(event.personId());
+    }
+
+    @Scheduled(fixedDelayString = "${payments.cache-coherence.flush-interval-ms:50}")
+    public void flush() {
+        Set<Long> accounts = pendingAccounts.getAndSet(ConcurrentHashMap.newKeySet());
+        Set<Long> persons = pendingPersons.getAndSet(ConcurrentHashMap.newKeySet());
+        if (accounts.isEmpty() && persons.isEmpty()) {
+            return;
+        }
+
+        // past this size, evicting everything is cheaper for the receivers than thousands of single evictions
+        CacheInvalidation invalidation = accounts.size() + persons.size() > maxBatchIds
+            ? CacheInvalidation.flushAll(nodeId)
+            : new CacheInvalidation(nodeId, accounts, persons, false);
+        try {
+            notify(invalidation.encode());
+        } catch (RuntimeException e) {
+            log.warn("Cache coherence notification failed, will retry", e);
+            pendingAccounts.get().addAll(accounts);
+            pendingPersons.get().addAll(persons);
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    private void notify(List<String> payloads) {
+        for (String payload : payloads) {
+            jdbcTemplate.execute("select pg_notify(?, ?)", (PreparedStatementCallback<Boolean>) ps -> {
+                ps.setString(1, channel);
+                ps.setString(2, payload);
+                return ps.execute();
+            });
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.tassi.payments.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Payload of a cache coherence notification: {@code node|a:1,2|p:7} or {@code node|*} for a full flush.
+ *
+ * Postgres caps NOTIFY payloads at 8000 bytes, so a large batch is split into several messages.
+ */
+public record CacheInvalidation(String nodeId, Set<Long> accountIds, Set<Long> personIds, boolean flushAll) {
+
+    static final int MAX_PAYLOAD = 7000;
+
+    public static CacheInvalidation flushAll(String nodeId) {
+        return new CacheInvalidation(nodeId, Set.of(), Set.of(), true);
+    }
+
+    public List<String> encode() {
+        if (flushAll) {
+            return List.of(nodeId + "|*");
+        }
+        List<String> payloads = new ArrayList<>();
+        StringBuilder current = new StringBuilder(nodeId);
+        current = append(payloads, current, 'a', accountIds);
+        current = append(payloads, current, 'p', personIds);
+        if (current.length() > nodeId.length()) {
+            payloads.add(current.toString());
+        }
+        return payloads;
+    }
+
+    public static CacheInvalidation decode(String payload) {
+        String[] parts = payload.split("\\|");
+        if (parts.length > 1 && parts[1].equals("*")) {
+            return flushAll(parts[0]);
+        }
+        Set<Long> accountIds = new LinkedHashSet<>();
+        Set<Long> personIds = new LinkedHashSet<>();
+        for (int i = 1; i < parts.length; i++) {
+            Set<Long> target = parts[i].charAt(0) == 'a' ? accountIds : personIds;
+            for (String id : parts[i].substring(2).split(",")) {
+                target.add(Long.valueOf(id));
+            }
+        }
+        return new CacheInvalidation(parts[0], accountIds, personIds, false);
+    }
+
+    private StringBuilder append(List<String> payloads, StringBuilder current, char kind, Collection<Long> ids) {
+        boolean open = false;
+        for (Long id : ids) {
+            String token = id.toString();
+            if (current.length() + token.length() + 3 > MAX_PAYLOAD) {
+                payloads.add(current.toString());
+                current = new StringBuilder(nodeId);
+                open = false;
+            }
+            current.append(open ? "," : "|" + kind + ":").append(token);
+            open = true;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tassi.payments.service;
+
+import java.util.Collection;
+
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+import com.tassi.payments.model.Person;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// second-level cache regions; person query results are dropped too since their update timestamps are per node
+@Component
+public class HibernateNodeCache implements NodeCache {
+
+    private final Cache cache;
+
+    public HibernateNodeCache(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    @Override
+    public void evictAccounts(Collection<Long> accountIds) {
+        // account profiles never change once created, and balances are not in the second-level cache
+    }
+
+    @Override
+    public void evictPersons(Collection<Long> personIds) {
+        personIds.forEach(id -> cache.evictEntityData(Person.class, id));
+        cache.evictQueryRegions();
+    }
+
+    @Override
+    public void evictAll() {
+        cache.evictAllRegions();
+    }
+}
@@ -0,0 +1,213 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tassi.payments.config.HoldProperties;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.repository.HoldRepository;
+
+/**
+ * Expiry of active holds, tracked in memory by a hierarchical timing wheel instead of scanning
+ * HOLDS. Holds enter the wheel when their authorization commits and leave it on capture/release;
+ * each tick releases the due ones in batches, one transaction and a few statements per batch.
+ *
+ * The wheel is per instance and loaded from the active holds on startup, so holds authorized on
+ * an instance that goes away expire when any instance next starts. Expiring twice is harmless:
+ * only holds still ACTIVE under the account lock are released.
+ */
+@Component
+public class HoldExpiryWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(HoldExpiryWheel.class);
+
+    // a batch that fails (database unavailable) is tried again after this
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(1);
+
+    private final HoldProperties properties;
+    private final HoldRepository holdRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TimingWheel wheel;
+
+    public HoldExpiryWheel(HoldProperties properties,
+                           HoldRepository holdRepository,
+                           JdbcTemplate jdbcTemplate,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher) {
+        this.properties = properties;
+        this.holdRepository = holdRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.wheel = new TimingWheel(properties.getTick().toMillis(), properties.getWheelSize(),
+            properties.getWheelLevels(), System.currentTimeMillis());
+    }
+
+    // takes effect when the surrounding transaction commits, so a rolled-back hold is never scheduled
+    public void schedule(Long holdId, LocalDateTime expiresAt) {
+        long deadline = toMillis(expiresAt);
+        afterCommit(() -> {
+            synchronized (wheel) {
+                wheel.schedule(holdId, deadline);
+            }
+        });
+    }
+
+    public void cancel(Long holdId) {
+        afterCommit(() -> {
+            synchronized (wheel) {
+                wheel.cancel(holdId);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${payments.holds.expiry-interval-ms:1000}")
+    public void expireDue() {
+        List<Long> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        for (int from = 0; from < due.size(); from += properties.getBatchSize()) {
+            List<Long> batch = due.subList(from, Math.min(due.size(), from + properties.getBatchSize()));
+            try {
+                expire(batch);
+            } catch (RuntimeException e) {
+                log.warn("Expiring {} holds failed, retrying in {}", batch.size(), RETRY_DELAY, e);
+                long retryAt = System.currentTimeMillis() + RETRY_DELAY.toMillis();
+                synchronized (wheel) {
+                    batch.forEach(id -> wheel.schedule(id, retryAt));
+                }
+            }
+        }
+    }
+
+    // releases those of the given holds that are still active; returns how many were expired
+    public int expire(List<Long> holdIds) {
+        if (holdIds.isEmpty()) {
+            return 0;
+        }
+        Integer expired = transactionTemplate.execute(status -> expireBatch(holdIds));
+        return expired == null ? 0 : expired;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverOnStartup() {
+        if (properties.isRecoverOnStartup()) {
+            log.info("Scheduled {} active holds for expiry", recover());
+        }
+    }
+
+    // loads every active hold into the wheel; overdue ones are expired on the next tick
+    public long recover() {
+        long after = 0;
+        long recovered = 0;
+        while (true) {
+            List<Object[]> page = holdRepository.findActiveAfter(after, PageRequest.of(0, properties.getBatchSize()));
+            synchronized (wheel) {
+                for (Object[] row : page) {
+                    wheel.schedule((Long) row[0], toMillis((LocalDateTime) row[1]));
+                }
+            }
+            recovered += page.size();
+            if (page.size() < properties.getBatchSize()) {
+                return recovered;
+            }
+            after = (Long) page.get(page.size() - 1)[0];
+        }
+    }
+
+    public int scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private int expireBatch(List<Long> holdIds) {
+        String in = String.join(", ", Collections.nCopies(holdIds.size(), "?"));
+        Object[] ids = holdIds.toArray();
+
+        // account rows first and in id order, like every other hold transition
+        Map<Long, AccountRow> accounts = new LinkedHashMap<>();
+        jdbcTemplate.query("select id_account, id_person, balance + " + PostingEngine.SLOT_SUM + " as balance, is_active_flag, "
+              + "last_transaction_id, state_version, " + PostingEngine.SLOT_WRITES + " as slot_writes "
+              + "from ACCOUNTS where id_account in (select id_account from HOLDS where id_hold in (" + in + ")) "
+              + "order by id_account for update",
+            rs -> {
+                accounts.put(rs.getLong("id_account"), new AccountRow(rs.getLong("id_person"), rs.getBigDecimal("balance"),
+                    rs.getBoolean("is_active_flag"), rs.getObject("last_transaction_id", Long.class),
+                    rs.getObject("state_version", Long.class), rs.getLong("slot_writes")));
+            }, ids);
+
+        Map<Long, BigDecimal> released = new LinkedHashMap<>();
+        jdbcTemplate.query("select id_account, amount from HOLDS where id_hold in (" + in + ") and status = 'ACTIVE'",
+            rs -> {
+                released.merge(rs.getLong("id_account"), rs.getBigDecimal("amount"), BigDecimal::add);
+            }, ids);
+        if (released.isEmpty()) {
+            return 0;
+        }
+
+        List<Object> params = new ArrayList<>(holdIds.size() + 1);
+        params.add(Timestamp.valueOf(LocalDateTime.now()));
+        params.addAll(holdIds);
+        int expired = jdbcTemplate.update("update HOLDS set status = 'EXPIRED', resolved_at = ? "
+            + "where id_hold in (" + in + ") and status = 'ACTIVE'", params.toArray());
+
+        List<Object[]> updates = new ArrayList<>(released.size());
+        released.forEach((accountId, amount) -> updates.add(new Object[] {amount, accountId}));
+        jdbcTemplate.batchUpdate("update ACCOUNTS set held_amount = coalesce(held_amount, 0) - ?, "
+            + "state_version = coalesce(state_version, 0) + 1 where id_account = ?", updates);
+
+        // delivered after commit to the balance streams, ETag versions and cache coherence
+        released.keySet().forEach(accountId -> {
+            AccountRow row = accounts.get(accountId);
+            eventPublisher.publishEvent(new AccountChangedEvent(accountId, row.personId(), row.balance(), row.active(),
+                Account.versionTag(row.lastTransactionId(), (row.stateVersion() == null ? 0 : row.stateVersion()) + 1, row.slotWrites())));
+        });
+        return expired;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record AccountRow(Long personId, BigDecimal balance, boolean active, Long lastTransactionId, Long stateVersion,
+                              long slotWrites) {
+    }
+}
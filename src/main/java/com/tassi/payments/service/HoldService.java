@@ -0,0 +1,21 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import com.tassi.payments.model.Hold;
+
+public interface HoldService {
+
+    // reserve funds on an account; a null ttl means the configured default
+    Hold authorize(Long accountId, BigDecimal amount, Duration ttl);
+
+    // debit the held funds (all of them when amount is null, otherwise part) and release the rest
+    Hold capture(Long holdId, BigDecimal amount);
+
+    // give the held funds back
+    Hold release(Long holdId);
+
+    // get hold
+    Hold getHold(Long holdId);
+}
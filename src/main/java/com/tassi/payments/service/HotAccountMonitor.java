@@ -0,0 +1,113 @@
+package com.tassi.payments.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tassi.payments.config.BalanceSlotProperties;
+import com.tassi.payments.repository.AccountRepository;
+
+/**
+ * Measures per-account contention and moves accounts in and out of hot (slotted) mode.
+ *
+ * Regular accounts report how long each balance update waited for the ACCOUNTS row lock;
+ * slotted accounts only report that an operation happened. Both are kept per evaluation
+ * interval, so only accounts active in the current interval hold an entry. Only accounts it
+ * promoted itself are demoted; manual promotions are pinned until demoted through the endpoint.
+ */
+@Component
+public class HotAccountMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(HotAccountMonitor.class);
+
+    private final BalanceSlotProperties properties;
+    private final BalanceSlotService balanceSlotService;
+    private final AccountRepository accountRepository;
+
+    private final AtomicReference<Map<Long, Window>> windows = new AtomicReference<>(new ConcurrentHashMap<>());
+    private final Map<Long, Long> quietSinceNanos = new ConcurrentHashMap<>();
+    private volatile long windowStartNanos = System.nanoTime();
+
+    public HotAccountMonitor(BalanceSlotProperties properties,
+                             BalanceSlotService balanceSlotService,
+                             AccountRepository accountRepository) {
+        this.properties = properties;
+        this.balanceSlotService = balanceSlotService;
+        this.accountRepository = accountRepository;
+    }
+
+    public void recordLockWait(Long accountId, long waitNanos) {
+        Window window = windows.get().computeIfAbsent(accountId, k -> new Window());
+        window.operations.increment();
+        window.waitNanos.add(waitNanos);
+    }
+
+    public void recordSlotted(Long accountId) {
+        windows.get().computeIfAbsent(accountId, k -> new Window()).operations.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${payments.slots.evaluation-interval-ms:5000}")
+    public void evaluate() {
+        long now = System.nanoTime();
+        Map<Long, Window> closed = windows.getAndSet(new ConcurrentHashMap<>());
+        double seconds = Math.max(1e-3, (now - windowStartNanos) / 1e9);
+        windowStartNanos = now;
+        if (!properties.isAutoEnabled()) {
+            return;
+        }
+
+        closed.forEach((accountId, window) -> {
+            long operations = window.operations.sum();
+            long waitNanos = window.waitNanos.sum();
+            double rate = operations / seconds;
+            if (waitNanos > 0 && rate >= properties.getPromoteMinRate()
+                    && waitNanos / operations >= properties.getPromoteLockWait().toNanos()) {
+                log.info("Promoting account {} to {} balance slots ({} ops/s, {} us average lock wait)",
+                    accountId, properties.getDefaultCount(), (long) rate, waitNanos / operations / 1000);
+                promote(accountId);
+            }
+        });
+
+        for (Long accountId : accountRepository.findAutoSlottedIds()) {
+            Window window = closed.get(accountId);
+            double rate = window == null ? 0 : window.operations.sum() / seconds;
+            if (rate > properties.getDemoteMaxRate()) {
+                quietSinceNanos.remove(accountId);
+                continue;
+            }
+            long quietSince = quietSinceNanos.computeIfAbsent(accountId, k -> now);
+            if (now - quietSince >= properties.getDemoteAfter().toNanos()) {
+                log.info("Demoting account {} from balance slots", accountId);
+                quietSinceNanos.remove(accountId);
+                demote(accountId);
+            }
+        }
+    }
+
+    private void promote(Long accountId) {
+        try {
+            balanceSlotService.promote(accountId, properties.getDefaultCount(), false);
+        } catch (RuntimeException e) {
+            log.warn("Could not promote account {}", accountId, e);
+        }
+    }
+
+    private void demote(Long accountId) {
+        try {
+            balanceSlotService.demote(accountId);
+        } catch (RuntimeException e) {
+            log.warn("Could not demote account {}", accountId, e);
+        }
+    }
+
+    private static final class Window {
+        final LongAdder operations = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+    }
+}
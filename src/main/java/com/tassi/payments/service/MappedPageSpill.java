@@ -0,0 +1,92 @@
+package com.tassi.payments.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Append-only spill area for immutable byte blocks, in one memory-mapped file.
+ *
+ * The index lives on the heap (a few dozen bytes per block), the blocks in the page cache of
+ * the OS. When the file is full it starts over and forgets everything spilled so far, which is
+ * fine for content that can always be rebuilt. The file is recreated on every start.
+ */
+public class MappedPageSpill implements Closeable {
+
+    private static final String FILE_NAME = "statement-pages.spill";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+
+    // offset in the high 32 bits, length in the low 32
+    private final Map<Object, Long> index = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private int position;
+
+    public MappedPageSpill(Path directory, long maxSize) throws IOException {
+        Files.createDirectories(directory);
+        this.file = directory.resolve(FILE_NAME);
+        this.capacity = (int) Math.min(maxSize, Integer.MAX_VALUE);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    public void put(Object key, byte[] block) {
+        if (block.length > capacity) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (index.containsKey(key)) {
+                return;
+            }
+            if (capacity - position < block.length) {
+                index.clear();
+                position = 0;
+            }
+            buffer.put(position, block);
+            index.put(key, ((long) position << 32) | block.length);
+            position += block.length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // null when the block was never spilled or the file has wrapped since
+    public byte[] get(Object key) {
+        lock.readLock().lock();
+        try {
+            Long entry = index.get(key);
+            if (entry == null) {
+                return null;
+            }
+            byte[] block = new byte[(int) (entry & 0xFFFFFFFFL)];
+            buffer.get((int) (entry >>> 32), block);
+            return block;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        index.clear();
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+}
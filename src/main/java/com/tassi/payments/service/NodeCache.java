@@ -0,0 +1,15 @@
+package com.tassi.payments.service;
+
+import java.util.Collection;
+
+// a cache local to this instance; evicted when another instance changes the underlying rows
+public interface NodeCache {
+
+    void evictAccounts(Collection<Long> accountIds);
+
+    void evictPersons(Collection<Long> personIds);
+
+    // used when notifications may have been missed (listener reconnect, oversized burst)
+    void evictAll();
+
+}
@@ -0,0 +1,172 @@
+package com.tassi.payments.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tassi.payments.dto.TransactionEventDto;
+import com.tassi.payments.model.OutboxCursor;
+import com.tassi.payments.model.OutboxEvent;
+import com.tassi.payments.repository.OutboxCursorRepository;
+import com.tassi.payments.repository.OutboxEventRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Publishes committed OUTBOX_EVENTS rows in batches and hands them to the registered sinks.
+ *
+ * Each batch gets consecutive stream offsets under the OUTBOX_CURSOR row lock, held until the
+ * batch commits, so a consumer reading offsets in order never skips a row that committed late
+ * with a lower id. Sinks run after the commit on their own thread, never inside the relay
+ * transaction; they are best-effort, and a consumer that missed a batch resumes from the table
+ * by offset.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final OutboxCursorRepository outboxCursorRepository;
+    private final List<TransactionEventSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final Executor sinkExecutor;
+    private final int batchSize;
+
+    private volatile boolean cursorReady;
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       OutboxCursorRepository outboxCursorRepository,
+                       List<TransactionEventSink> sinks,
+                       TransactionTemplate transactionTemplate,
+                       JdbcTemplate jdbcTemplate,
+                       @Value("${payments.outbox.batch-size:500}") int batchSize) {
+        // one thread, so sinks see batches in offset order
+        this(outboxEventRepository, outboxCursorRepository, sinks, transactionTemplate, jdbcTemplate,
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("outbox-sinks").daemon().factory()), batchSize);
+    }
+
+    OutboxRelay(OutboxEventRepository outboxEventRepository,
+                OutboxCursorRepository outboxCursorRepository,
+                List<TransactionEventSink> sinks,
+                TransactionTemplate transactionTemplate,
+                JdbcTemplate jdbcTemplate,
+                Executor sinkExecutor,
+                int batchSize) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.outboxCursorRepository = outboxCursorRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sinkExecutor = sinkExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${payments.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            ensureCursor();
+            // drain everything that is pending, one batch per transaction
+            List<TransactionEventDto> events;
+            do {
+                events = transactionTemplate.execute(status -> relayBatch());
+                if (!events.isEmpty()) {
+                    deliver(events);
+                }
+            } while (events.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Outbox relay failed, will retry", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sinkExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    // marks one batch published with the next offsets; returns it with those offsets
+    private List<TransactionEventDto> relayBatch() {
+        OutboxCursor cursor = outboxCursorRepository.findByIdForUpdate(OutboxCursor.STREAM)
+            .orElseThrow(() -> new IllegalStateException("Outbox cursor not found."));
+
+        // read after taking the lock, so rows published by the previous holder are not picked again
+        List<OutboxEvent> batch = outboxEventRepository.findByPublishedFalseOrderByIdEventAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return List.of();
+        }
+
+        long offset = cursor.getLastOffset();
+        List<Object[]> updates = new ArrayList<>(batch.size());
+        List<TransactionEventDto> events = new ArrayList<>(batch.size());
+        for (OutboxEvent event : batch) {
+            TransactionEventDto dto = toDto(event);
+            dto.setOffset(++offset);
+            events.add(dto);
+            updates.add(new Object[] {offset, event.getIdEvent()});
+        }
+        jdbcTemplate.batchUpdate("update OUTBOX_EVENTS set published = true, stream_offset = ? where id_event = ?", updates);
+        cursor.setLastOffset(offset);
+        return events;
+    }
+
+    private void deliver(List<TransactionEventDto> events) {
+        sinkExecutor.execute(() -> {
+            for (TransactionEventSink sink : sinks) {
+                try {
+                    sink.publish(events);
+                } catch (RuntimeException e) {
+                    log.warn("Outbox sink {} failed for offsets {}..{}", sink, events.get(0).getOffset(),
+                        events.get(events.size() - 1).getOffset(), e);
+                }
+            }
+        });
+    }
+
+    // the cursor row is created once; rows published before it existed keep their id as offset
+    private void ensureCursor() {
+        if (cursorReady) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (outboxCursorRepository.existsById(OutboxCursor.STREAM)) {
+                    return;
+                }
+                outboxEventRepository.backfillStreamOffsets();
+                outboxCursorRepository.saveAndFlush(new OutboxCursor(OutboxCursor.STREAM, outboxEventRepository.findMaxIdEvent()));
+            });
+        } catch (DataIntegrityViolationException e) {
+            // created concurrently by another instance
+        }
+        cursorReady = true;
+    }
+
+    public static TransactionEventDto toDto(OutboxEvent event) {
+        return new TransactionEventDto(
+            event.getStreamOffset(),
+            event.getAccountId(),
+            event.getTransactionId(),
+            event.getEventType(),
+            event.getValue(),
+            event.getBalanceAfter(),
+            event.getCreatedAt()
+        );
+    }
+}
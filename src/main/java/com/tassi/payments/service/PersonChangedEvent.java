@@ -0,0 +1,5 @@
+package com.tassi.payments.service;
+
+// published when a PEOPLE row is written, for the other instances' person caches
+public record PersonChangedEvent(Long personId) {
+}
@@ -0,0 +1,367 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tassi.payments.config.PostingProperties;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.model.PostingKind;
+import com.tassi.payments.model.PostingRun;
+import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.PostingRunRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * End-of-day interest and monthly fee postings by account type.
+ *
+ * ACCOUNTS is walked in id ranges; each range is one chunk and one database transaction, and
+ * a wave of chunks runs in parallel. Per chunk the rows are locked, postings are computed in
+ * Java, TRANSACTIONS / balances / aggregates are written as JDBC batches and the outbox rows
+ * with a single insert-select. The run checkpoint advances after each wave. Each posted account
+ * gets a POSTING_ENTRIES row in the same transaction, so re-running a date (an interrupted wave,
+ * a forced re-run) only posts the accounts it has not reached yet.
+ */
+@Component
+public class PostingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PostingEngine.class);
+
+    private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+
+    // hot accounts keep part of their balance in slot rows (see BalanceSlotService)
+    static final String SLOT_SUM =
+        "coalesce((select sum(s.balance) from ACCOUNT_BALANCE_SLOTS s where s.id_account = ACCOUNTS.id_account), 0)";
+    static final String SLOT_WRITES =
+        "coalesce((select sum(s.write_count) from ACCOUNT_BALANCE_SLOTS s where s.id_account = ACCOUNTS.id_account), 0)";
+    // what was posted after a point in time, to take the balance back to the end of the business date
+    private static final String POSTED_SINCE =
+        "coalesce((select sum(t.\"value\") from TRANSACTIONS t where t.id_account = ACCOUNTS.id_account and t.transaction_date >= ?), 0)";
+
+    private final PostingProperties properties;
+    private final AccountRepository accountRepository;
+    private final PostingRunRepository postingRunRepository;
+    private final AccountSummaryService accountSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HikariDataSource pool;
+    private final ExecutorService workers;
+    // runs started through the admin endpoint, one at a time
+    private final ExecutorService runner =
+        Executors.newSingleThreadExecutor(Thread.ofPlatform().name("posting-runs").daemon().factory());
+
+    public PostingEngine(PostingProperties properties,
+                         AccountRepository accountRepository,
+                         PostingRunRepository postingRunRepository,
+                         AccountSummaryService accountSummaryService,
+                         ApplicationEventPublisher eventPublisher,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         DataSource dataSource) {
+        this.properties = properties;
+        this.accountRepository = accountRepository;
+        this.postingRunRepository = postingRunRepository;
+        this.accountSummaryService = accountSummaryService;
+        this.eventPublisher = eventPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.pool = unwrapPool(dataSource);
+        this.workers = Executors.newFixedThreadPool(properties.getParallelism());
+    }
+
+    // yesterday's interest, shortly after midnight
+    @Scheduled(cron = "${payments.posting.interest-cron:0 5 0 * * *}")
+    public void scheduledInterest() {
+        if (properties.isEnabled()) {
+            catchUp(PostingKind.INTEREST, LocalDate.now().minusDays(1), date -> date.plusDays(1));
+        }
+    }
+
+    // this month's fee, on the first day of the month
+    @Scheduled(cron = "${payments.posting.fee-cron:0 30 0 1 * *}")
+    public void scheduledFee() {
+        if (properties.isEnabled()) {
+            catchUp(PostingKind.FEE, LocalDate.now().withDayOfMonth(1), date -> date.withDayOfMonth(1).plusMonths(1));
+        }
+    }
+
+    // finishes runs left incomplete (a crash, a failed chunk), then posts every date after the
+    // latest run up to the target, so days the scheduler missed are not lost
+    void catchUp(PostingKind kind, LocalDate target, UnaryOperator<LocalDate> next) {
+        for (PostingRun incomplete : postingRunRepository.findByKindAndCompletedFalseOrderByBusinessDateAsc(kind)) {
+            run(kind, incomplete.getBusinessDate());
+        }
+        LocalDate date = postingRunRepository.findFirstByKindOrderByBusinessDateDesc(kind)
+            .map(latest -> next.apply(latest.getBusinessDate()))
+            .orElse(target);
+        for (; !date.isAfter(target); date = next.apply(date)) {
+            run(kind, date);
+        }
+    }
+
+    // claims the run and processes it in the background; the returned row carries the id to poll
+    public PostingRun start(PostingKind kind, LocalDate businessDate) {
+        PostingRun run = claim(kind, businessDate);
+        if (!run.getCompleted()) {
+            runner.execute(() -> {
+                try {
+                    run(kind, businessDate);
+                } catch (RuntimeException e) {
+                    // stays incomplete; the next scheduled run or another start resumes it
+                    log.error("Posting {} for {} failed", kind, businessDate, e);
+                }
+            });
+        }
+        return run;
+    }
+
+    // runs (or resumes) the posting for one business date; a completed run is returned as is
+    public PostingRun run(PostingKind kind, LocalDate businessDate) {
+        PostingRun run = claim(kind, businessDate);
+        if (run.getCompleted()) {
+            return run;
+        }
+        log.info("Posting {} for {} from account {}", kind, businessDate, run.getLastAccountId());
+
+        long after = run.getLastAccountId();
+        long posted = run.getPostedCount();
+        long waveStart = System.nanoTime();
+        while (true) {
+            List<long[]> ranges = nextRanges(after);
+            if (ranges.isEmpty()) {
+                break;
+            }
+
+            long wavePosted = runWave(kind, businessDate, ranges);
+            after = ranges.get(ranges.size() - 1)[1];
+            posted += wavePosted;
+            postingRunRepository.advance(run.getIdRun(), after, wavePosted);
+
+            waveStart = throttle(ranges.size(), waveStart);
+        }
+
+        postingRunRepository.complete(run.getIdRun(), LocalDateTime.now());
+        log.info("Posted {} {} entries for {}", posted, kind, businessDate);
+        return postingRunRepository.findById(run.getIdRun()).orElseThrow();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runner.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private PostingRun claim(PostingKind kind, LocalDate businessDate) {
+        return postingRunRepository.findByKindAndBusinessDate(kind, businessDate).orElseGet(() -> {
+            PostingRun run = new PostingRun();
+            run.setKind(kind);
+            run.setBusinessDate(businessDate);
+            run.setStartedAt(LocalDateTime.now());
+            try {
+                return postingRunRepository.saveAndFlush(run);
+            } catch (DataIntegrityViolationException e) {
+                // created concurrently by another instance
+                return postingRunRepository.findByKindAndBusinessDate(kind, businessDate).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    // up to `parallelism` consecutive id ranges (exclusive lower, inclusive upper bound)
+    private List<long[]> nextRanges(long after) {
+        List<long[]> ranges = new ArrayList<>();
+        long lower = after;
+        for (int i = 0; i < properties.getParallelism(); i++) {
+            List<Long> ids = accountRepository.findIdsAfter(lower, PageRequest.of(0, properties.getChunkSize()));
+            if (ids.isEmpty()) {
+                break;
+            }
+            long upper = ids.get(ids.size() - 1);
+            ranges.add(new long[] {lower, upper});
+            lower = upper;
+            if (ids.size() < properties.getChunkSize()) {
+                break;
+            }
+        }
+        return ranges;
+    }
+
+    private long runWave(PostingKind kind, LocalDate businessDate, List<long[]> ranges) {
+        List<Future<Integer>> results = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            results.add(workers.submit(() -> transactionTemplate.execute(status -> postChunk(kind, businessDate, range[0], range[1]))));
+        }
+        long posted = 0;
+        try {
+            for (Future<Integer> result : results) {
+                posted += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Posting interrupted", e);
+        } catch (ExecutionException e) {
+            // checkpoint stays at the previous wave; accounts in chunks that did commit have their entries
+            throw new IllegalStateException("Posting chunk failed", e.getCause());
+        }
+        return posted;
+    }
+
+    private int postChunk(PostingKind kind, LocalDate businessDate, long afterId, long upToId) {
+        LocalDateTime postedAt = kind == PostingKind.INTEREST ? businessDate.atTime(23, 59, 59) : businessDate.atStartOfDay();
+
+        // row locks keep deposits/withdrawals from changing these balances until the chunk commits;
+        // slotted accounts are read with their slot rows, which keep taking deposits meanwhile.
+        // Interest accrues on the balance at the end of the business date, which is the current
+        // balance less whatever was posted since (the run may be late, or resumed days after);
+        // fees are charged against the available (current, not held) balance
+        LocalDateTime dayEnd = businessDate.plusDays(1).atStartOfDay();
+        List<AccountRow> rows = jdbcTemplate.query(
+            "select id_account, id_person, balance + " + SLOT_SUM + " as balance, "
+          + "balance + " + SLOT_SUM + " - " + POSTED_SINCE + " as closing_balance, coalesce(held_amount, 0) as held_amount, "
+          + "account_type, is_active_flag, last_transaction_id, state_version, " + SLOT_WRITES + " as slot_writes "
+          + "from ACCOUNTS where id_account > ? and id_account <= ? and is_active_flag = true "
+          + "and not exists (select 1 from POSTING_ENTRIES p where p.id_account = ACCOUNTS.id_account "
+          + "and p.kind = ? and p.business_date = ?) order by id_account for update",
+            PostingEngine::mapRow, dayEnd, afterId, upToId, kind.name(), businessDate);
+
+        Map<AccountRow, BigDecimal> postings = new LinkedHashMap<>();
+        for (AccountRow row : rows) {
+            BigDecimal amount = amount(kind, row);
+            if (amount.signum() != 0) {
+                postings.put(row, amount);
+            }
+        }
+        if (postings.isEmpty()) {
+            return 0;
+        }
+
+        List<Object[]> transactions = new ArrayList<>(postings.size());
+        List<Object[]> balances = new ArrayList<>(postings.size());
+        List<Object[]> entries = new ArrayList<>(postings.size());
+        Map<Long, BigDecimal> values = new LinkedHashMap<>();
+        postings.forEach((row, amount) -> {
+            transactions.add(new Object[] {row.accountId(), amount, postedAt});
+            balances.add(new Object[] {amount, row.accountId()});
+            entries.add(new Object[] {row.accountId(), kind.name(), businessDate});
+            values.put(row.accountId(), amount);
+        });
+
+        // the range's rows are locked, so every posting inserted below gets a higher id
+        Long lastTransactionId = jdbcTemplate.queryForObject(
+            "select coalesce(max(id_transaction), 0) from TRANSACTIONS where id_account > ? and id_account <= ?",
+            Long.class, afterId, upToId);
+
+        // the unique (account, kind, date) key also rolls back a chunk another run posted concurrently
+        jdbcTemplate.batchUpdate("insert into POSTING_ENTRIES (id_account, kind, business_date) values (?, ?, ?)", entries);
+        jdbcTemplate.batchUpdate("insert into TRANSACTIONS (id_account, \"value\", transaction_date) values (?, ?, ?)", transactions);
+        jdbcTemplate.batchUpdate("update ACCOUNTS set balance = balance + ?, "
+            + "state_version = coalesce(state_version, 0) + 1 where id_account = ?", balances);
+
+        // one outbox row per posting, with the balance after it
+        jdbcTemplate.update("insert into OUTBOX_EVENTS (id_account, id_transaction, event_type, \"value\", balance_after, created_at, published) "
+            + "select t.id_account, t.id_transaction, ?, abs(t.\"value\"), a.balance + " + SLOT_SUM.replace("ACCOUNTS.", "a.") + ", t.transaction_date, false "
+            + "from TRANSACTIONS t join ACCOUNTS a on a.id_account = t.id_account "
+            + "where t.id_account > ? and t.id_account <= ? and t.id_transaction > ? and t.transaction_date = ?",
+            kind.name(), afterId, upToId, lastTransactionId, postedAt);
+
+        accountSummaryService.recordAll(values, postedAt);
+
+        // delivered after commit to the balance streams, ETag versions and cache coherence
+        postings.forEach((row, amount) -> eventPublisher.publishEvent(new AccountChangedEvent(
+            row.accountId(), row.personId(), row.balance().add(amount), row.active(),
+            Account.versionTag(row.lastTransactionId(), (row.stateVersion() == null ? 0 : row.stateVersion()) + 1, row.slotWrites()))));
+
+        return postings.size();
+    }
+
+    // signed amount for one account; zero means nothing to post
+    private BigDecimal amount(PostingKind kind, AccountRow row) {
+        PostingProperties.Rule rule = properties.getAccountTypes().get(row.accountType());
+        if (rule == null) {
+            return BigDecimal.ZERO;
+        }
+        if (kind == PostingKind.INTEREST) {
+            if (row.closingBalance().signum() <= 0) {
+                return BigDecimal.ZERO;
+            }
+            return row.closingBalance().multiply(rule.getAnnualInterestRate())
+                .divide(DAYS_PER_YEAR, 2, RoundingMode.HALF_EVEN);
+        }
+        // fees never take the available balance below zero, so captures of held funds still succeed
+        return rule.getMonthlyFee().min(row.balance().subtract(row.heldAmount()).max(BigDecimal.ZERO)).negate();
+    }
+
+    // limits chunk throughput and yields to live traffic while it is waiting for connections
+    private long throttle(int chunks, long waveStart) {
+        long minNanos = properties.getMaxChunksPerSecond() > 0
+            ? (long) (chunks * 1_000_000_000L / properties.getMaxChunksPerSecond())
+            : 0;
+        long elapsed = System.nanoTime() - waveStart;
+        try {
+            if (elapsed < minNanos) {
+                TimeUnit.NANOSECONDS.sleep(minNanos - elapsed);
+            }
+            while (pool != null && pool.getHikariPoolMXBean() != null
+                    && pool.getHikariPoolMXBean().getThreadsAwaitingConnection() > 0) {
+                Thread.sleep(properties.getBusyBackoff().toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Posting interrupted", e);
+        }
+        return System.nanoTime();
+    }
+
+    private static HikariDataSource unwrapPool(DataSource dataSource) {
+        try {
+            return dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static AccountRow mapRow(ResultSet rs, int rowNum) throws SQLException {
+        return new AccountRow(
+            rs.getLong("id_account"),
+            rs.getLong("id_person"),
+            rs.getBigDecimal("balance"),
+            rs.getBigDecimal("closing_balance"),
+            rs.getBigDecimal("held_amount"),
+            rs.getInt("account_type"),
+            rs.getBoolean("is_active_flag"),
+            rs.getObject("last_transaction_id", Long.class),
+            rs.getObject("state_version", Long.class),
+            rs.getLong("slot_writes"));
+    }
+
+    private record AccountRow(Long accountId, Long personId, BigDecimal balance, BigDecimal closingBalance, BigDecimal heldAmount,
+                              Integer accountType, boolean active, Long lastTransactionId, Long stateVersion, long slotWrites) {
+    }
+}
@@ -0,0 +1,125 @@
+package com.tassi.payments.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.tassi.payments.config.RateLimitProperties;
+import com.tassi.payments.model.AccountProfile;
+import com.tassi.payments.repository.AccountProfileRepository;
+
+/**
+ * In-process token buckets keyed by client and by account.
+ *
+ * Each bucket is a single AtomicLong (last refill time + remaining tokens), so admission
+ * is one CAS and an idle account costs a map entry plus two small objects.
+ */
+@Component
+public class RateLimiter {
+
+    private final RateLimitProperties properties;
+    private final AccountProfileRepository accountProfileRepository;
+
+    private final ConcurrentMap<String, TokenBucket> clientBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, TokenBucket> accountBuckets = new ConcurrentHashMap<>();
+
+    private final long epochNanos = System.nanoTime();
+
+    public RateLimiter(RateLimitProperties properties, AccountProfileRepository accountProfileRepository) {
+        this.properties = properties;
+        this.accountProfileRepository = accountProfileRepository;
+    }
+
+    // returns 0 when admitted, otherwise the millis until a token is available
+    public long tryAcquireClient(String clientKey) {
+        TokenBucket bucket = clientBuckets.computeIfAbsent(clientKey, k -> new TokenBucket(properties.getClient(), now()));
+        return bucket.tryAcquire(now());
+    }
+
+    // returns 0 when admitted, otherwise the millis until a token is available
+    public long tryAcquireAccount(Long accountId) {
+        TokenBucket bucket = accountBuckets.get(accountId);
+        if (bucket == null) {
+            // account type never changes, so it is looked up once per bucket lifetime and outside the map lock
+            Integer accountType = accountProfileRepository.findById(accountId).map(AccountProfile::getAccountType).orElse(null);
+            TokenBucket created = new TokenBucket(properties.forAccountType(accountType), now());
+            bucket = accountBuckets.putIfAbsent(accountId, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        return bucket.tryAcquire(now());
+    }
+
+    // drop buckets idle long enough to have refilled completely
+    @Scheduled(fixedDelayString = "${payments.rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long cutoff = now() - properties.getIdleTimeout().toMillis();
+        clientBuckets.values().removeIf(b -> b.lastRefill() < cutoff);
+        accountBuckets.values().removeIf(b -> b.lastRefill() < cutoff);
+    }
+
+    public int trackedBuckets() {
+        return clientBuckets.size() + accountBuckets.size();
+    }
+
+    private long now() {
+        return (System.nanoTime() - epochNanos) / 1_000_000;
+    }
+
+    static final class TokenBucket {
+
+        // state layout: [40 bits last refill millis][24 bits tokens in 1/256 units]
+        private static final int TOKEN_BITS = 24;
+        private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+        private static final long UNIT = 256;
+
+        private final long capacityUnits;
+        private final double unitsPerMilli;
+        private final AtomicLong state;
+
+        TokenBucket(RateLimitProperties.Limit limit, long nowMillis) {
+            this.capacityUnits = Math.min((long) limit.getCapacity() * UNIT, TOKEN_MASK);
+            this.unitsPerMilli = limit.getRefillPerSecond() * UNIT / 1000.0;
+            this.state = new AtomicLong(pack(nowMillis, capacityUnits));
+        }
+
+        long tryAcquire(long nowMillis) {
+            while (true) {
+                long current = state.get();
+                long last = current >>> TOKEN_BITS;
+                long tokens = current & TOKEN_MASK;
+
+                // units accrued since the epoch up to now, less those up to the last refill: the
+                // fractions add up across refills instead of being dropped at each one
+                long refill = nowMillis > last ? (long) (nowMillis * unitsPerMilli) - (long) (last * unitsPerMilli) : 0;
+                if (refill > 0) {
+                    tokens = Math.min(capacityUnits, tokens + refill);
+                    last = nowMillis;
+                }
+
+                if (tokens < UNIT) {
+                    if (unitsPerMilli <= 0) {
+                        return Long.MAX_VALUE;
+                    }
+                    return Math.max(1, (long) Math.ceil((UNIT - tokens) / unitsPerMilli));
+                }
+
+                if (state.compareAndSet(current, pack(last, tokens - UNIT))) {
+                    return 0;
+                }
+            }
+        }
+
+        long lastRefill() {
+            return state.get() >>> TOKEN_BITS;
+        }
+
+        private static long pack(long millis, long tokens) {
+            return (millis << TOKEN_BITS) | tokens;
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package com.tassi.payments.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.tassi.payments.config.StatementCacheProperties;
+import com.tassi.payments.dto.TransactionDto;
+import com.tassi.payments.model.AccountAggregate;
+import com.tassi.payments.model.AggregatePeriod;
+import com.tassi.payments.model.Transaction;
+import com.tassi.payments.repository.AccountAggregateRepository;
+import com.tassi.payments.repository.TransactionRepository;
+
+/**
+ * JSON statements assembled from cached, pre-serialized pages of closed days.
+ *
+ * Deposits and withdrawals only ever add transactions to today, so the page of an earlier day
+ * is serialized once and kept until evicted; only today's tail is read from TRANSACTIONS on
+ * every request. Pages are kept uncompressed: they are written straight into the response,
+ * which server.compression compresses once as a whole.
+ *
+ * Which days exist, and how many transactions each has, is counted from TRANSACTIONS once per
+ * account and kept as an index with the account version it was read at; while the version is
+ * unchanged it is used as is. After a write only the days since the indexed ones are counted,
+ * and the ALL and today's DAY aggregates give the number of closed transactions to check it
+ * against: a late write such as an interest posting for yesterday shows up as a mismatch and
+ * the index is counted again.
+ * Each page is keyed by its count as well, so the old page is never served again and just ages
+ * out. Days missing from the cache are read with one ranged query and split per day in memory.
+ *
+ * Pages are the same on every instance, so nothing here needs cross-node invalidation.
+ */
+@Component
+public class StatementPageCache {
+
+    private static final byte[] COMMA = {','};
+    private static final byte[] END = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final StatementCacheProperties properties;
+    private final TransactionRepository transactionRepository;
+    private final AccountAggregateRepository aggregateRepository;
+    private final ObjectMapper objectMapper;
+    private final MappedPageSpill spill;
+    private final Cache<PageKey, byte[]> pages;
+    private final Cache<Long, DayIndex> dayIndexes;
+
+    public StatementPageCache(StatementCacheProperties properties,
+                              TransactionRepository transactionRepository,
+                              AccountAggregateRepository aggregateRepository,
+                              ObjectMapper objectMapper,
+                              ObjectProvider<MappedPageSpill> spill) {
+        this.properties = properties;
+        this.transactionRepository = transactionRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.objectMapper = objectMapper;
+        this.spill = spill.getIfAvailable();
+        this.pages = Caffeine.newBuilder()
+            .maximumWeight(properties.getMaxMemory().toBytes())
+            .weigher((PageKey key, byte[] block) -> block.length + 64)
+            .removalListener((PageKey key, byte[] block, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE && this.spill != null && key != null && block != null) {
+                    this.spill.put(key, block);
+                }
+            })
+            .build();
+        this.dayIndexes = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxIndexedAccounts())
+            .build();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    // same JSON as StatementResponse (transactions newest first), built from one read-only transaction
+    @Transactional(readOnly = true)
+    public byte[] statementJson(AccountState state) {
+        Long accountId = state.accountId();
+        LocalDate today = LocalDate.now(properties.getZone());
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+            out.write(("{\"accountId\":" + objectMapper.writeValueAsString(accountId)
+                + ",\"balance\":" + objectMapper.writeValueAsString(state.balance())
+                + ",\"transactions\":[").getBytes(StandardCharsets.UTF_8));
+
+            boolean first = true;
+            byte[] tail = serialize(transactionRepository.findSince(accountId, today.atStartOfDay()));
+            if (tail.length > 0) {
+                out.write(tail);
+                first = false;
+            }
+            List<PageKey> days = closedDays(accountId, state.version(), today);
+            Map<PageKey, byte[]> closed = pages(accountId, days);
+            for (PageKey day : days) {
+                byte[] page = closed.get(day);
+                if (page.length == 0) {
+                    continue;
+                }
+                if (!first) {
+                    out.write(COMMA);
+                }
+                out.write(page);
+                first = false;
+            }
+            out.write(END);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long cachedPages() {
+        return pages.estimatedSize();
+    }
+
+    // the closed days, newest first; from the index while the account is unchanged, or when the
+    // aggregates agree with the index extended to today
+    private List<PageKey> closedDays(Long accountId, String version, LocalDate today) {
+        DayIndex index = dayIndexes.getIfPresent(accountId);
+        if (index != null && index.through().equals(today) && index.version().equals(version)) {
+            return index.days();
+        }
+        if (index != null && !index.through().isAfter(today)) {
+            List<PageKey> days = index.days();
+            if (index.through().isBefore(today)) {
+                days = new ArrayList<>(dayCounts(accountId, transactionRepository.findDayCountsBetween(
+                    accountId, index.through().atStartOfDay(), today.atStartOfDay())));
+                days.addAll(index.days());
+            }
+            DayIndex extended = new DayIndex(today, version, days);
+            if (extended.count() == closedCount(accountId, today)) {
+                dayIndexes.put(accountId, extended);
+                return days;
+            }
+        }
+        // first statement, or a write dated before the indexed days
+        DayIndex counted = new DayIndex(today, version,
+            dayCounts(accountId, transactionRepository.findDayCounts(accountId, today.atStartOfDay())));
+        dayIndexes.put(accountId, counted);
+        return counted.days();
+    }
+
+    // transactions before today according to the aggregates, summed over slots
+    private long closedCount(Long accountId, LocalDate today) {
+        long count = 0;
+        for (AccountAggregate row : aggregateRepository.findByAccountIdAndPeriodStartIn(
+                accountId, List.of(AccountAggregate.ALL_TIME_START, today))) {
+            long transactions = row.getDepositCount() + row.getWithdrawalCount();
+            if (row.getPeriodType() == AggregatePeriod.ALL) {
+                count += transactions;
+            } else if (row.getPeriodType() == AggregatePeriod.DAY) {
+                count -= transactions;
+            }
+        }
+        return count;
+    }
+
+    private static List<PageKey> dayCounts(Long accountId, List<Object[]> rows) {
+        List<PageKey> days = new ArrayList<>(rows.size());
+        for (Object[] day : rows) {
+            days.add(new PageKey(accountId, (LocalDate) day[0], ((Number) day[1]).longValue()));
+        }
+        return days;
+    }
+
+    // array elements of each closed day, comma separated, without brackets; days are newest first
+    private Map<PageKey, byte[]> pages(Long accountId, List<PageKey> days) throws IOException {
+        Map<PageKey, byte[]> found = new HashMap<>();
+        List<PageKey> missing = new ArrayList<>();
+        for (PageKey key : days) {
+            byte[] block = cached(key);
+            if (block != null) {
+                found.put(key, block);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        // one query from the oldest to the newest missing day; cached days in between are skipped
+        LocalDate from = missing.get(missing.size() - 1).day();
+        LocalDate to = missing.get(0).day();
+        Map<LocalDate, List<Transaction>> byDay = new HashMap<>();
+        for (Transaction t : transactionRepository.findPage(accountId, from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+            byDay.computeIfAbsent(t.getTransactionDate().toLocalDate(), day -> new ArrayList<>()).add(t);
+        }
+        for (PageKey key : missing) {
+            List<Transaction> transactions = byDay.getOrDefault(key.day(), List.of());
+            byte[] json = serialize(transactions);
+            // a write committed between reading the count and the page: serve it, cache the next one
+            if (transactions.size() == key.count()) {
+                pages.put(key, json);
+            }
+            found.put(key, json);
+        }
+        return found;
+    }
+
+    private byte[] cached(PageKey key) {
+        byte[] block = pages.getIfPresent(key);
+        if (block == null && spill != null) {
+            block = spill.get(key);
+            if (block != null) {
+                pages.put(key, block);
+            }
+        }
+        return block;
+    }
+
+    private byte[] serialize(List<Transaction> transactions) throws JsonProcessingException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(transactions.size() * 96);
+        for (int i = 0; i < transactions.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            out.writeBytes(objectMapper.writeValueAsBytes(TransactionDto.from(transactions.get(i))));
+        }
+        return out.toByteArray();
+    }
+
+    private record PageKey(Long accountId, LocalDate day, long count) {
+    }
+
+    // closed days of one account, newest first, counted up to (excluding) `through` at an account version
+    private record DayIndex(LocalDate through, String version, List<PageKey> days) {
+
+        long count() {
+            long count = 0;
+            for (PageKey day : days) {
+                count += day.count();
+            }
+            return count;
+        }
+    }
+}
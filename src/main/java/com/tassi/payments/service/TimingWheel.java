@@ -0,0 +1,162 @@
+package com.tassi.payments.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel of long ids (Varghese &amp; Lauck).
+ *
+ * Level L has `size` buckets of size^L ticks each. An id goes into the lowest level whose span
+ * still reaches its deadline; when the clock enters a higher-level bucket, its ids are re-inserted
+ * and fall to lower levels, so scheduling and cancelling are O(1) and a tick only touches the ids
+ * that are due or cascading. Deadlines past the top level wait in its farthest bucket and are
+ * re-inserted from there. Not thread-safe on its own: callers synchronize.
+ */
+final class TimingWheel {
+
+    private final long tickMillis;
+    private final int size;
+    private final long[] spans;
+    private final Bucket[][] levels;
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Bucket overdue = new Bucket();
+    private long currentTick;
+
+    TimingWheel(long tickMillis, int size, int levelCount, long startMillis) {
+        if (tickMillis < 1 || size < 2 || levelCount < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel dimensions.");
+        }
+        this.tickMillis = tickMillis;
+        this.size = size;
+        this.spans = new long[levelCount];
+        this.levels = new Bucket[levelCount][size];
+        long span = 1;
+        for (int level = 0; level < levelCount; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, size);
+            for (int i = 0; i < size; i++) {
+                levels[level][i] = new Bucket();
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // (re)schedules an id; a deadline already reached is returned by the next advance
+    void schedule(long id, long deadlineMillis) {
+        cancel(id);
+        Entry entry = new Entry(id, Math.ceilDiv(deadlineMillis, tickMillis));
+        entries.put(id, entry);
+        place(entry);
+    }
+
+    boolean cancel(long id) {
+        Entry entry = entries.remove(id);
+        if (entry == null) {
+            return false;
+        }
+        entry.bucket.remove(entry);
+        return true;
+    }
+
+    // moves the clock to nowMillis and returns the ids whose deadline has been reached
+    List<Long> advance(long nowMillis) {
+        List<Long> due = new ArrayList<>();
+        drain(overdue, due);
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = levels.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    Bucket bucket = levels[level][(int) ((currentTick / spans[level]) % size)];
+                    for (Entry entry : bucket.clear()) {
+                        place(entry);
+                    }
+                }
+            }
+            drain(overdue, due);
+            drain(levels[0][(int) (currentTick % size)], due);
+        }
+        return due;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void place(Entry entry) {
+        if (entry.deadlineTick <= currentTick) {
+            overdue.add(entry);
+            return;
+        }
+        for (int level = 0; level < levels.length; level++) {
+            long bucketIndex = entry.deadlineTick / spans[level];
+            if (bucketIndex - currentTick / spans[level] < size) {
+                levels[level][(int) (bucketIndex % size)].add(entry);
+                return;
+            }
+        }
+        // beyond the top level: park in its farthest bucket and look again when it comes round
+        int top = levels.length - 1;
+        levels[top][(int) ((currentTick / spans[top] + size - 1) % size)].add(entry);
+    }
+
+    private void drain(Bucket bucket, List<Long> due) {
+        for (Entry entry : bucket.clear()) {
+            entries.remove(entry.id);
+            due.add(entry.id);
+        }
+    }
+
+    private static final class Entry {
+        final long id;
+        final long deadlineTick;
+        Bucket bucket;
+        Entry prev;
+        Entry next;
+
+        Entry(long id, long deadlineTick) {
+            this.id = id;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    // intrusive doubly-linked list, so a cancelled entry leaves its bucket in O(1)
+    private static final class Bucket {
+        private Entry head;
+
+        void add(Entry entry) {
+            entry.bucket = this;
+            entry.prev = null;
+            entry.next = head;
+            if (head != null) {
+                head.prev = entry;
+            }
+            head = entry;
+        }
+
+        void remove(Entry entry) {
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else {
+                head = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.bucket = null;
+            entry.prev = null;
+            entry.next = null;
+        }
+
+        List<Entry> clear() {
+            List<Entry> cleared = new ArrayList<>();
+            for (Entry entry = head; entry != null; entry = entry.next) {
+                cleared.add(entry);
+            }
+            head = null;
+            return cleared;
+        }
+    }
+}
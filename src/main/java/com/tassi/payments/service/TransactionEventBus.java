@@ -0,0 +1,41 @@
+package com.tassi.payments.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.tassi.payments.dto.TransactionEventDto;
+
+/**
+ * In-process subscriber API for the transaction event stream.
+ *
+ * Subscribers are called on the relay thread with each batch and must not block.
+ */
+@Component
+public class TransactionEventBus implements TransactionEventSink {
+
+    private static final Logger log = LoggerFactory.getLogger(TransactionEventBus.class);
+
+    private final List<Consumer<List<TransactionEventDto>>> subscribers = new CopyOnWriteArrayList<>();
+
+    // returns a handle that removes the subscription
+    public Runnable subscribe(Consumer<List<TransactionEventDto>> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    @Override
+    public void publish(List<TransactionEventDto> events) {
+        for (Consumer<List<TransactionEventDto>> subscriber : subscribers) {
+            try {
+                subscriber.accept(events);
+            } catch (RuntimeException e) {
+                log.warn("Transaction event subscriber failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.tassi.payments.service;
+
+import java.util.List;
+
+import com.tassi.payments.dto.TransactionEventDto;
+
+// receives committed transaction events from the outbox relay, in offset order
+public interface TransactionEventSink {
+
+    void publish(List<TransactionEventDto> events);
+
+}
@@ -0,0 +1,170 @@
+package com.tassi.payments.service;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.tassi.payments.dto.TransactionEventDto;
+import com.tassi.payments.model.OutboxEvent;
+import com.tassi.payments.repository.OutboxEventRepository;
+
+/**
+ * SSE sink for the transaction event stream.
+ *
+ * Subscribers are always fed from OUTBOX_EVENTS, from the last offset sent onwards: offsets
+ * are assigned and committed in order under the relay cursor lock, so the published rows are
+ * a gap-free prefix of the stream. A batch relayed by this instance only wakes its subscribers
+ * up; batches relayed by another instance are picked up by a poll of the stream's high-water
+ * mark. A client resuming with an offset first gets the published events after it.
+ */
+@Component
+public class TransactionEventStreamService implements TransactionEventSink {
+
+    private static final int REPLAY_PAGE_SIZE = 500;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final long timeoutMillis;
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // highest offset the poll has looked at
+    private volatile long polledOffset = -1;
+
+    public TransactionEventStreamService(OutboxEventRepository outboxEventRepository,
+                                         @Value("${payments.events.sse-timeout-ms:1800000}") long timeoutMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public SseEmitter open(Long accountId, Long afterOffset) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // without an offset the stream starts at the events published from now on
+        long start = afterOffset != null ? afterOffset : outboxEventRepository.findMaxStreamOffset();
+        Subscriber subscriber = new Subscriber(accountId, emitter, start);
+
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.computeIfAbsent(accountId, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        if (afterOffset != null) {
+            subscriber.catchUp();
+        }
+        return emitter;
+    }
+
+    // a wake-up: the events themselves are read back from the table in offset order
+    @Override
+    public void publish(List<TransactionEventDto> events) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        events.stream()
+            .map(TransactionEventDto::getAccountId)
+            .collect(Collectors.toSet())
+            .forEach(this::catchUp);
+    }
+
+    // events relayed by other instances never reach this one's sinks
+    @Scheduled(fixedDelayString = "${payments.events.poll-interval-ms:1000}")
+    public void poll() {
+        if (subscribers.isEmpty()) {
+            // no query while nobody listens; the first poll after that catches up every subscriber
+            polledOffset = -1;
+            return;
+        }
+        long latest = outboxEventRepository.findMaxStreamOffset();
+        long after = polledOffset;
+        polledOffset = latest;
+        if (after < 0) {
+            Set.copyOf(subscribers.keySet()).forEach(this::catchUp);
+            return;
+        }
+        if (latest <= after) {
+            return;
+        }
+        outboxEventRepository.findAccountIdsWithEventsBetween(Set.copyOf(subscribers.keySet()), after, latest)
+            .forEach(this::catchUp);
+    }
+
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void catchUp(Long accountId) {
+        Set<Subscriber> accountSubscribers = subscribers.get(accountId);
+        if (accountSubscribers != null) {
+            accountSubscribers.forEach(Subscriber::catchUp);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.computeIfPresent(subscriber.accountId, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber {
+
+        private final Long accountId;
+        private final SseEmitter emitter;
+        // a lock rather than synchronized: sends block on I/O and may run on virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        private long lastSentOffset;
+        private volatile boolean closed;
+
+        private Subscriber(Long accountId, SseEmitter emitter, long lastSentOffset) {
+            this.accountId = accountId;
+            this.emitter = emitter;
+            this.lastSentOffset = lastSentOffset;
+        }
+
+        // everything published after the last offset sent; the lock keeps concurrent wake-ups in order
+        private void catchUp() {
+            lock.lock();
+            try {
+                List<OutboxEvent> page;
+                do {
+                    page = outboxEventRepository.findByAccountIdAndStreamOffsetGreaterThanOrderByStreamOffsetAsc(
+                        accountId, lastSentOffset, PageRequest.of(0, REPLAY_PAGE_SIZE));
+                    for (OutboxEvent event : page) {
+                        if (!send(OutboxRelay.toDto(event))) {
+                            return;
+                        }
+                    }
+                } while (page.size() == REPLAY_PAGE_SIZE);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean send(TransactionEventDto event) {
+            if (closed) {
+                return false;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                    .id(String.valueOf(event.getOffset()))
+                    .name("transaction")
+                    .data(event));
+                lastSentOffset = event.getOffset();
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                emitter.completeWithError(e);
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.tassi.payments.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tassi.payments.config.VelocityProperties;
+
+/**
+ * Sliding-window velocity rules for withdrawals (count and amount per account in the last window).
+ *
+ * Each account active in the window has a ring of time buckets held in primitive arrays; a check
+ * sums the live buckets under the account's monitor, so no query runs on the withdrawal path.
+ * A withdrawal is counted when admitted and taken back if its transaction rolls back. Accounts
+ * with nothing in the window are dropped, and the last window is replayed from TRANSACTIONS on
+ * startup. State is per instance: with several instances an account's traffic is only limited
+ * as a whole when it is routed to one of them.
+ */
+@Component
+public class VelocityGuard {
+
+    private static final Logger log = LoggerFactory.getLogger(VelocityGuard.class);
+
+    private final VelocityProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final long bucketMillis;
+    private final ConcurrentMap<Long, Window> windows = new ConcurrentHashMap<>();
+
+    public VelocityGuard(VelocityProperties properties, JdbcTemplate jdbcTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bucketMillis = Math.max(1, properties.getWindow().toMillis() / properties.getBuckets());
+    }
+
+    // throws when this withdrawal would break the account type's rule; call before any balance update
+    public void reserve(Long accountId, Integer accountType, BigDecimal value) {
+        reserve(accountId, accountType, value, System.currentTimeMillis());
+    }
+
+    void reserve(Long accountId, Integer accountType, BigDecimal value, long nowMillis) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        VelocityProperties.Rule rule = properties.forAccountType(accountType);
+        if (rule.isUnlimited()) {
+            return;
+        }
+        int maxCount = rule.getMaxCount() > 0 ? rule.getMaxCount() : Integer.MAX_VALUE;
+        long maxCents = rule.getMaxAmount() != null ? cents(rule.getMaxAmount()) : Long.MAX_VALUE;
+        long cents = cents(value);
+        long bucket = nowMillis / bucketMillis;
+
+        Window window;
+        int result;
+        do {
+            window = windows.computeIfAbsent(accountId, k -> new Window(properties.getBuckets()));
+            result = window.tryAdd(bucket, cents, maxCount, maxCents);
+        } while (result == Window.EVICTED);
+
+        if (result == Window.REJECTED) {
+            throw new IllegalStateException("Withdrawal velocity limit exceeded.");
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Window admitted = window;
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        admitted.remove(bucket, cents);
+                    }
+                }
+            });
+        }
+    }
+
+    // drop accounts with nothing left in the window
+    @Scheduled(fixedDelayString = "${payments.velocity.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long oldestLive = System.currentTimeMillis() / bucketMillis - properties.getBuckets() + 1;
+        windows.forEach((accountId, window) -> {
+            if (window.evictIfIdle(oldestLive)) {
+                windows.remove(accountId, window);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (properties.isEnabled() && properties.isRebuildOnStartup()) {
+            log.info("Replayed {} recent withdrawals into the velocity windows", rebuild());
+        }
+    }
+
+    // replays the withdrawals of the last window; returns how many were counted
+    public long rebuild() {
+        long now = System.currentTimeMillis();
+        LocalDateTime since = LocalDateTime.now().minus(properties.getWindow());
+        AtomicLong replayed = new AtomicLong();
+        jdbcTemplate.query("select id_account, \"value\", transaction_date from TRANSACTIONS "
+                + "where transaction_date >= ? and \"value\" < 0", rs -> {
+                Timestamp date = rs.getTimestamp("transaction_date");
+                replay(rs.getLong("id_account"), rs.getBigDecimal("value").negate(),
+                    Math.min(now, date.toLocalDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+                replayed.incrementAndGet();
+            }, Timestamp.valueOf(since));
+        return replayed.get();
+    }
+
+    void replay(Long accountId, BigDecimal value, long atMillis) {
+        windows.computeIfAbsent(accountId, k -> new Window(properties.getBuckets()))
+            .add(atMillis / bucketMillis, cents(value));
+    }
+
+    public int trackedAccounts() {
+        return windows.size();
+    }
+
+    private static long cents(BigDecimal value) {
+        return value.setScale(2, RoundingMode.CEILING).unscaledValue().longValueExact();
+    }
+
+    // one account's ring of buckets; all access under the window's monitor
+    static final class Window {
+
+        static final int ADDED = 0;
+        static final int REJECTED = 1;
+        static final int EVICTED = 2;
+
+        private final long[] bucketIds;
+        private final int[] counts;
+        private final long[] cents;
+        private boolean evicted;
+
+        Window(int buckets) {
+            this.bucketIds = new long[buckets];
+            this.counts = new int[buckets];
+            this.cents = new long[buckets];
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+        }
+
+        synchronized int tryAdd(long bucket, long amount, int maxCount, long maxCents) {
+            if (evicted) {
+                return EVICTED;
+            }
+            long oldestLive = bucket - bucketIds.length + 1;
+            int count = 0;
+            long total = 0;
+            for (int i = 0; i < bucketIds.length; i++) {
+                if (bucketIds[i] >= oldestLive && bucketIds[i] <= bucket) {
+                    count += counts[i];
+                    total += cents[i];
+                }
+            }
+            if (count + 1 > maxCount || total + amount > maxCents) {
+                return REJECTED;
+            }
+            add(bucket, amount);
+            return ADDED;
+        }
+
+        synchronized void add(long bucket, long amount) {
+            int i = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[i] != bucket) {
+                if (bucketIds[i] > bucket) {
+                    // older than what the slot holds now, i.e. already out of the window
+                    return;
+                }
+                bucketIds[i] = bucket;
+                counts[i] = 0;
+                cents[i] = 0;
+            }
+            counts[i]++;
+            cents[i] += amount;
+        }
+
+        synchronized void remove(long bucket, long amount) {
+            int i = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[i] == bucket) {
+                counts[i]--;
+                cents[i] -= amount;
+            }
+        }
+
+        synchronized boolean evictIfIdle(long oldestLive) {
+            for (long id : bucketIds) {
+                if (id >= oldestLive) {
+                    return false;
+                }
+            }
+            evicted = true;
+            return true;
+        }
+    }
+}
@@ -3,17 +3,34 @@ package com.tassi.payments.service.impl;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.tassi.payments.dto.PortfolioAccountDto;
+import com.tassi.payments.dto.PortfolioResponse;
+import com.tassi.payments.dto.TransactionDto;
+import com.tassi.payments.jfr.OperationTrace;
 import com.tassi.payments.model.Account;
+import com.tassi.payments.model.OutboxEvent;
 import com.tassi.payments.model.Person;
 import com.tassi.payments.model.Transaction;
 import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.OutboxEventRepository;
 import com.tassi.payments.repository.PersonRepository;
 import com.tassi.payments.repository.TransactionRepository;
+import com.tassi.payments.service.AccountChangedEvent;
 import com.tassi.payments.service.AccountService;
+import com.tassi.payments.service.AccountState;
+import com.tassi.payments.service.AccountSummaryService;
+import com.tassi.payments.service.BalanceSlotService;
+import com.tassi.payments.service.HotAccountMonitor;
+import com.tassi.payments.service.VelocityGuard;
 
 @Service
 public class AccountServiceImpl implements AccountService {
@@ -21,13 +38,31 @@ public class AccountServiceImpl implements AccountService {
     private final AccountRepository accountRepository;
     private final TransactionRepository transactionRepository;
     private final PersonRepository personRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountSummaryService accountSummaryService;
+    private final BalanceSlotService balanceSlotService;
+    private final HotAccountMonitor hotAccountMonitor;
+    private final VelocityGuard velocityGuard;
 
     public AccountServiceImpl(AccountRepository accountRepository, 
                               TransactionRepository transactionRepository,
-                              PersonRepository personRepository) {
+                              PersonRepository personRepository,
+                              OutboxEventRepository outboxEventRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              AccountSummaryService accountSummaryService,
+                              BalanceSlotService balanceSlotService,
+                              HotAccountMonitor hotAccountMonitor,
+                              VelocityGuard velocityGuard) {
         this.accountRepository = accountRepository;
         this.transactionRepository = transactionRepository;
         this.personRepository = personRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.accountSummaryService = accountSummaryService;
+        this.balanceSlotService = balanceSlotService;
+        this.hotAccountMonitor = hotAccountMonitor;
+        this.velocityGuard = velocityGuard;
     }
 
     // new account
@@ -45,53 +80,107 @@ public class AccountServiceImpl implements AccountService {
         newAccount.setAccountType(accountType);
         newAccount.setCreationDate(LocalDateTime.now());
 
-        return accountRepository.save(newAccount);
+        Account saved = accountRepository.save(newAccount);
+        publishChange(saved);
+        return saved;
     }
 
     // deposit
     @Override
     @Transactional
     public void deposit(Long accountId, BigDecimal value) {
+        OperationTrace trace = OperationTrace.begin("deposit", accountId);
+        try {
+            deposit(trace, accountId, value);
+            trace.success();
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
+    }
+
+    private void deposit(OperationTrace trace, Long accountId, BigDecimal value) {
         if (value.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Deposit value must be positive.");
         }
 
-        Account account = accountRepository.findById(accountId)
+        trace.phase("lookup");
+        int slotCount = accountRepository.findSlotCount(accountId)
             .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+        if (slotCount > 0) {
+            depositToSlot(trace, accountId, value);
+            return;
+        }
+        depositToAccount(trace, accountId, value);
+    }
+
+    private void depositToAccount(OperationTrace trace, Long accountId, BigDecimal value) {
+        trace.phase("lock");
+        Account account = lockAccount(accountId);
         
+        trace.phase("validate");
         if (!account.getIsActiveFlag()) {
             throw new IllegalStateException("Account is blocked and cannot receive deposits.");
         }
 
         // update balance
+        trace.phase("balance");
         account.setBalance(account.getBalance().add(value));
         accountRepository.save(account);
 
         // record transaction
+        trace.phase("insert");
         Transaction transaction = new Transaction();
         transaction.setAccount(account);
         transaction.setValue(value); // Positive value for Deposit
         transaction.setTransactionDate(LocalDateTime.now());
         transactionRepository.save(transaction);
+        account.setLastTransactionId(transaction.getIdTransaction());
+
+        // outbox row commits (or rolls back) together with the transaction
+        trace.phase("record");
+        recordEvent(accountId, transaction, "DEPOSIT", account.getBalance());
+        accountSummaryService.record(accountId, transaction.getValue(), transaction.getTransactionDate());
+        publishChange(account);
     }
 
     // withdrawal
     @Override
     @Transactional
     public void withdraw(Long accountId, BigDecimal value) {
+        OperationTrace trace = OperationTrace.begin("withdraw", accountId);
+        try {
+            withdraw(trace, accountId, value);
+            trace.success();
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
+    }
+
+    private void withdraw(OperationTrace trace, Long accountId, BigDecimal value) {
         if (value.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalArgumentException("Withdrawal value must be positive.");
         }
 
-        Account account = accountRepository.findById(accountId)
+        trace.phase("lookup");
+        int slotCount = accountRepository.findSlotCount(accountId)
             .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+        if (slotCount > 0) {
+            withdrawFromSlots(trace, accountId, value, slotCount);
+            return;
+        }
 
+        trace.phase("lock");
+        Account account = lockAccount(accountId);
+
+        trace.phase("validate");
         if (!account.getIsActiveFlag()) {
             throw new IllegalStateException("Account is blocked.");
         }
 
-        // insufficient funds
-        if (account.getBalance().compareTo(value) < 0) {
+        // insufficient funds; amounts held for authorizations are not available
+        if (account.getBalance().subtract(account.heldOrZero()).compareTo(value) < 0) {
             throw new IllegalStateException("Insufficient balance for withdrawal.");
         }
         
@@ -100,62 +189,247 @@ public class AccountServiceImpl implements AccountService {
             throw new IllegalStateException("Withdrawal amount exceeds daily limit.");
         }
 
+        // velocity rules, in memory
+        trace.phase("velocity");
+        velocityGuard.reserve(accountId, account.getAccountType(), value);
+
         // update balance
+        trace.phase("balance");
         account.setBalance(account.getBalance().subtract(value));
         accountRepository.save(account);
 
         // record transaction
+        trace.phase("insert");
         Transaction transaction = new Transaction();
         transaction.setAccount(account);
         // Note: Use negative value for debit/withdrawal
         transaction.setValue(value.negate()); 
         transaction.setTransactionDate(LocalDateTime.now());
         transactionRepository.save(transaction);
+        account.setLastTransactionId(transaction.getIdTransaction());
+
+        trace.phase("record");
+        recordEvent(accountId, transaction, "WITHDRAWAL", account.getBalance());
+        accountSummaryService.record(accountId, transaction.getValue(), transaction.getTransactionDate());
+        publishChange(account);
     }
     
     // balance inquiry
     @Override
+    @Transactional(readOnly = true)
     public BigDecimal getBalance(Long accountId) {
+        return getState(accountId).balance();
+    }
+
+    // account lookup
+    @Override
+    @Transactional(readOnly = true)
+    public Account getAccount(Long accountId) {
+        return accountRepository.findById(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+    }
+
+    // total balance and version tag
+    @Override
+    @Transactional(readOnly = true)
+    public AccountState getState(Long accountId) {
         Account account = accountRepository.findById(accountId)
             .orElseThrow(() -> new IllegalArgumentException("Account not found."));
-        
-        return account.getBalance();
+        return balanceSlotService.state(account);
+    }
+
+    // two queries whatever the number of accounts: the portfolio and, if asked for, the preview
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<PortfolioResponse> getPortfolio(Long personId, int recent) {
+        List<PortfolioAccountDto> accounts = accountRepository.findPortfolio(personId);
+        if (accounts.isEmpty() && !personRepository.existsById(personId)) {
+            return Optional.empty();
+        }
+
+        if (recent > 0 && !accounts.isEmpty()) {
+            Map<Long, List<TransactionDto>> previews = transactionRepository.findRecentByPerson(personId, recent).stream()
+                .collect(Collectors.groupingBy(t -> t.getAccount().getIdAccount(),
+                    Collectors.mapping(TransactionDto::from, Collectors.toList())));
+            accounts.forEach(a -> a.setRecentTransactions(previews.getOrDefault(a.getAccountId(), List.of())));
+        }
+
+        BigDecimal total = accounts.stream()
+            .map(PortfolioAccountDto::getBalance)
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Optional.of(new PortfolioResponse(personId, total, accounts));
     }
 
     // blocks account
     @Override
     @Transactional
     public Account blockAccount(Long accountId) {
-        Account account = accountRepository.findById(accountId)
-            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+        OperationTrace trace = OperationTrace.begin("block", accountId);
+        try {
+            trace.phase("lock");
+            Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found."));
 
-        if (!account.getIsActiveFlag()) {
-             throw new IllegalStateException("Account is already blocked.");
-        }
+            trace.phase("validate");
+            if (!account.getIsActiveFlag()) {
+                 throw new IllegalStateException("Account is already blocked.");
+            }
 
-        account.setIsActiveFlag(false);
-        return accountRepository.save(account);
+            trace.phase("balance");
+            account.setIsActiveFlag(false);
+            account.bumpStateVersion();
+            Account saved = accountRepository.save(account);
+            publishChange(account);
+            trace.success();
+            return saved;
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
     }
 
     // unblocks account
     @Override
     @Transactional
     public Account unblockAccount(Long accountId) {
-        Account account = accountRepository.findById(accountId)
-            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+        OperationTrace trace = OperationTrace.begin("unblock", accountId);
+        try {
+            trace.phase("lock");
+            Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found."));
 
-        if (account.getIsActiveFlag()) {
-             throw new IllegalStateException("Account is already active.");
-        }
+            trace.phase("validate");
+            if (account.getIsActiveFlag()) {
+                 throw new IllegalStateException("Account is already active.");
+            }
 
-        account.setIsActiveFlag(true);
-        return accountRepository.save(account);
+            trace.phase("balance");
+            account.setIsActiveFlag(true);
+            account.bumpStateVersion();
+            Account saved = accountRepository.save(account);
+            publishChange(account);
+            trace.success();
+            return saved;
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
     }
 
     // transaction history
     @Override
+    @Transactional(readOnly = true)
     public List<Transaction> getStatement(Long accountId) {
      return transactionRepository.findByAccount_IdAccountOrderByTransactionDateDesc(accountId);
     }
 
+    // hot account: the ACCOUNTS row is only share-locked and never written, only one slot row is
+    private void depositToSlot(OperationTrace trace, Long accountId, BigDecimal value) {
+        trace.phase("lock");
+        Account account = accountRepository.findByIdForShare(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+
+        // demoted between the lookup and the lock: the locked row is current, and a demotion can't
+        // start while it is held. The regular path upgrades to the exclusive lock; writing the row
+        // under the shared lock alone would deadlock two deposits upgrading at the same time
+        if (account.getSlotCount() == null || account.getSlotCount() == 0) {
+            depositToAccount(trace, accountId, value);
+            return;
+        }
+
+        trace.phase("validate");
+        if (!account.getIsActiveFlag()) {
+            throw new IllegalStateException("Account is blocked and cannot receive deposits.");
+        }
+
+        trace.phase("insert");
+        Transaction transaction = newTransaction(account, value);
+        trace.phase("balance");
+        int slot = ThreadLocalRandom.current().nextInt(account.getSlotCount());
+        if (!balanceSlotService.deposit(accountId, slot, value, transaction.getIdTransaction())) {
+            throw new IllegalStateException("Balance slot " + slot + " of account " + accountId + " not found.");
+        }
+        hotAccountMonitor.recordSlotted(accountId);
+        trace.phase("record");
+        finishSlotted(account, transaction, "DEPOSIT", slot, false);
+    }
+
+    // exclusive, since a short slot escalates to consolidation and a shared lock can't be upgraded safely
+    private void withdrawFromSlots(OperationTrace trace, Long accountId, BigDecimal value, int slotCount) {
+        trace.phase("lock");
+        Account account = accountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+
+        trace.phase("validate");
+        if (!account.getIsActiveFlag()) {
+            throw new IllegalStateException("Account is blocked.");
+        }
+        if (account.getDailyWithdrawalLimit().compareTo(value) < 0) {
+            throw new IllegalStateException("Withdrawal amount exceeds daily limit.");
+        }
+        // slots alone can't see holds; the row lock keeps the total from dropping meanwhile
+        if (account.heldOrZero().signum() > 0
+                && accountRepository.findTotalBalance(accountId).subtract(account.heldOrZero()).compareTo(value) < 0) {
+            throw new IllegalStateException("Insufficient balance for withdrawal.");
+        }
+        trace.phase("velocity");
+        velocityGuard.reserve(accountId, account.getAccountType(), value);
+
+        // inserted first for its id; an insufficient balance rolls it back with everything else
+        trace.phase("insert");
+        Transaction transaction = newTransaction(account, value.negate());
+        trace.phase("balance");
+        int slot = balanceSlotService.withdraw(accountId, slotCount, value, transaction.getIdTransaction());
+        hotAccountMonitor.recordSlotted(accountId);
+        trace.phase("record");
+        finishSlotted(account, transaction, "WITHDRAWAL", slot, true);
+    }
+
+    // under the shared lock, deposits to other slots may commit after this one without being seen
+    // here, so the version is left unknown and listeners re-read it; the exclusive lock sees them all
+    private void finishSlotted(Account account, Transaction transaction, String eventType, int slot, boolean exclusive) {
+        // balance after includes concurrent deposits to other slots committed by now
+        AccountState state = balanceSlotService.state(account);
+        recordEvent(account.getIdAccount(), transaction, eventType, state.balance());
+        accountSummaryService.record(account.getIdAccount(), transaction.getValue(), transaction.getTransactionDate(), slot);
+        eventPublisher.publishEvent(new AccountChangedEvent(state.accountId(), state.personId(),
+            state.balance(), state.active(), exclusive ? state.version() : null));
+    }
+
+    private Transaction newTransaction(Account account, BigDecimal value) {
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setValue(value);
+        transaction.setTransactionDate(LocalDateTime.now());
+        transactionRepository.save(transaction);
+        return transaction;
+    }
+
+    // row lock for the balance update; the wait is what promotes an account to slots
+    private Account lockAccount(Long accountId) {
+        long start = System.nanoTime();
+        Account account = accountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+        hotAccountMonitor.recordLockWait(accountId, System.nanoTime() - start);
+        return account;
+    }
+
+    private void recordEvent(Long accountId, Transaction transaction, String eventType, BigDecimal balanceAfter) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAccountId(accountId);
+        event.setTransactionId(transaction.getIdTransaction());
+        event.setEventType(eventType);
+        event.setValue(transaction.getValue().abs());
+        event.setBalanceAfter(balanceAfter);
+        event.setCreatedAt(transaction.getTransactionDate());
+        outboxEventRepository.save(event);
+    }
+
+    // delivered to listeners only once the surrounding transaction commits
+    private void publishChange(Account account) {
+        AccountState state = balanceSlotService.state(account);
+        eventPublisher.publishEvent(new AccountChangedEvent(state.accountId(), state.personId(),
+            state.balance(), state.active(), state.version()));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,277 @@
+package com.tassi.payments.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tassi.payments.dto.AccountSummaryResponse;
+import com.tassi.payments.dto.PeriodTotalsDto;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.model.AccountAggregate;
+import com.tassi.payments.model.AggregatePeriod;
+import com.tassi.payments.model.Transaction;
+import com.tassi.payments.repository.AccountAggregateRepository;
+import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.TransactionRepository;
+import com.tassi.payments.service.AccountSummaryService;
+import com.tassi.payments.service.BalanceSlotService;
+
+@Service
+public class AccountSummaryServiceImpl implements AccountSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountSummaryServiceImpl.class);
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+
+    private static final String INCREMENT_SQL = "update ACCOUNT_AGGREGATES set "
+        + "deposit_count = deposit_count + ?, deposit_total = deposit_total + ?, "
+        + "withdrawal_count = withdrawal_count + ?, withdrawal_total = withdrawal_total + ?, last_activity = ? "
+        + "where id_account = ? and period_type = ? and period_start = ? and slot = 0";
+
+    private static final String INSERT_SQL = "insert into ACCOUNT_AGGREGATES "
+        + "(deposit_count, deposit_total, withdrawal_count, withdrawal_total, last_activity, id_account, period_type, period_start, slot) "
+        + "values (?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final AccountAggregateRepository aggregateRepository;
+    private final AccountRepository accountRepository;
+    private final BalanceSlotService balanceSlotService;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean rebuildOnStartup;
+
+    public AccountSummaryServiceImpl(AccountAggregateRepository aggregateRepository,
+                                     AccountRepository accountRepository,
+                                     BalanceSlotService balanceSlotService,
+                                     TransactionRepository transactionRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     JdbcTemplate jdbcTemplate,
+                                     @Value("${payments.summary.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.aggregateRepository = aggregateRepository;
+        this.accountRepository = accountRepository;
+        this.balanceSlotService = balanceSlotService;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    // joins the caller's transaction so the aggregates commit with the TRANSACTIONS row
+    @Override
+    public void record(Long accountId, BigDecimal value, LocalDateTime transactionDate) {
+        record(accountId, value, transactionDate, 0);
+    }
+
+    @Override
+    public void record(Long accountId, BigDecimal value, LocalDateTime transactionDate, int slot) {
+        boolean deposit = value.signum() >= 0;
+        BigDecimal amount = value.abs();
+        LocalDate day = transactionDate.toLocalDate();
+        LocalDate monthStart = day.withDayOfMonth(1);
+        long depositCount = deposit ? 1 : 0;
+        BigDecimal depositTotal = deposit ? amount : BigDecimal.ZERO;
+        long withdrawalCount = deposit ? 0 : 1;
+        BigDecimal withdrawalTotal = deposit ? BigDecimal.ZERO : amount;
+
+        // one statement for the three periods; all three rows exist except on an account's first transaction of a day
+        int updated = aggregateRepository.incrementPeriods(accountId, slot, AccountAggregate.ALL_TIME_START, monthStart, day,
+            depositCount, depositTotal, withdrawalCount, withdrawalTotal, transactionDate);
+        if (updated == 3) {
+            return;
+        }
+
+        // first transaction of the period; the ACCOUNTS (or balance slot) row lock serializes this per slot
+        List<AggregatePeriod> existing = aggregateRepository.findPeriodTypes(accountId, slot,
+            AccountAggregate.ALL_TIME_START, monthStart, day);
+        for (AggregatePeriod period : AggregatePeriod.values()) {
+            if (!existing.contains(period)) {
+                LocalDate periodStart = switch (period) {
+                    case ALL -> AccountAggregate.ALL_TIME_START;
+                    case MONTH -> monthStart;
+                    case DAY -> day;
+                };
+                aggregateRepository.insert(accountId, period, periodStart, slot,
+                    depositCount, depositTotal, withdrawalCount, withdrawalTotal, transactionDate);
+            }
+        }
+    }
+
+    // same increments as record(), sent as one JDBC batch per period instead of three statements per account
+    @Override
+    public void recordAll(Map<Long, BigDecimal> values, LocalDateTime transactionDate) {
+        if (values.isEmpty()) {
+            return;
+        }
+        LocalDate day = transactionDate.toLocalDate();
+        incrementAll(values, AggregatePeriod.ALL, AccountAggregate.ALL_TIME_START, transactionDate);
+        incrementAll(values, AggregatePeriod.MONTH, day.withDayOfMonth(1), transactionDate);
+        incrementAll(values, AggregatePeriod.DAY, day, transactionDate);
+    }
+
+    // three indexed rows, independent of history length
+    @Override
+    @Transactional(readOnly = true)
+    public AccountSummaryResponse getSummary(Long accountId) {
+        Account account = accountRepository.findById(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+
+        LocalDate today = LocalDate.now();
+        LocalDate monthStart = today.withDayOfMonth(1);
+        List<AccountAggregate> rows = aggregateRepository.findByAccountIdAndPeriodStartIn(
+            accountId, List.of(AccountAggregate.ALL_TIME_START, today, monthStart));
+
+        AccountAggregate allTime = pick(rows, AggregatePeriod.ALL, AccountAggregate.ALL_TIME_START);
+        AccountAggregate day = pick(rows, AggregatePeriod.DAY, today);
+        AccountAggregate month = pick(rows, AggregatePeriod.MONTH, monthStart);
+
+        return new AccountSummaryResponse(
+            accountId,
+            balanceSlotService.state(account).balance(),
+            allTime.getDepositCount() + allTime.getWithdrawalCount(),
+            allTime.getLastActivity(),
+            toDto(allTime),
+            toDto(day),
+            toDto(month)
+        );
+    }
+
+    @Override
+    public void rebuild(Long accountId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // the exclusive row lock also waits out slot deposits (which share-lock the account), so no
+            // transaction commits between reading the history and replacing the aggregates
+            accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+            aggregateRepository.deleteByAccountId(accountId);
+
+            Map<String, AccountAggregate> aggregates = new LinkedHashMap<>();
+            for (Transaction t : transactionRepository.findByAccount_IdAccountOrderByTransactionDateDesc(accountId)) {
+                LocalDate day = t.getTransactionDate().toLocalDate();
+                accumulate(aggregates, accountId, AggregatePeriod.ALL, AccountAggregate.ALL_TIME_START, t);
+                accumulate(aggregates, accountId, AggregatePeriod.MONTH, day.withDayOfMonth(1), t);
+                accumulate(aggregates, accountId, AggregatePeriod.DAY, day, t);
+            }
+            aggregateRepository.saveAll(aggregates.values());
+        });
+    }
+
+    // one transaction per account so a long backfill never holds locks across accounts
+    @Override
+    public int rebuildAll() {
+        int processed = 0;
+        long after = 0L;
+        List<Long> ids;
+        do {
+            ids = accountRepository.findIdsAfter(after, PageRequest.of(0, REBUILD_PAGE_SIZE));
+            for (Long id : ids) {
+                rebuild(id);
+                after = id;
+            }
+            processed += ids.size();
+        } while (ids.size() == REBUILD_PAGE_SIZE);
+        return processed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (rebuildOnStartup) {
+            log.info("Rebuilt account summaries for {} accounts", rebuildAll());
+        }
+    }
+
+    private void incrementAll(Map<Long, BigDecimal> values, AggregatePeriod period, LocalDate periodStart,
+                              LocalDateTime activity) {
+        List<Object[]> rows = new ArrayList<>(values.size());
+        values.forEach((accountId, value) -> {
+            boolean deposit = value.signum() >= 0;
+            rows.add(new Object[] {
+                deposit ? 1 : 0, deposit ? value.abs() : BigDecimal.ZERO,
+                deposit ? 0 : 1, deposit ? BigDecimal.ZERO : value.abs(),
+                activity, accountId, period.name(), periodStart
+            });
+        });
+
+        int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+
+        // rows for accounts without an aggregate for this period yet; the ACCOUNTS row locks held by the caller serialize this
+        List<Object[]> missing = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(rows.get(i));
+            }
+        }
+        if (!missing.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, missing);
+        }
+    }
+
+    private static void accumulate(Map<String, AccountAggregate> aggregates, Long accountId,
+                                   AggregatePeriod period, LocalDate periodStart, Transaction t) {
+        AccountAggregate aggregate = aggregates.computeIfAbsent(period + ":" + periodStart,
+            k -> newAggregate(accountId, period, periodStart));
+        apply(aggregate, t.getValue().signum() >= 0, t.getValue().abs(), t.getTransactionDate());
+    }
+
+    private static void apply(AccountAggregate aggregate, boolean deposit, BigDecimal amount, LocalDateTime activity) {
+        if (deposit) {
+            aggregate.setDepositCount(aggregate.getDepositCount() + 1);
+            aggregate.setDepositTotal(aggregate.getDepositTotal().add(amount));
+        } else {
+            aggregate.setWithdrawalCount(aggregate.getWithdrawalCount() + 1);
+            aggregate.setWithdrawalTotal(aggregate.getWithdrawalTotal().add(amount));
+        }
+        if (aggregate.getLastActivity() == null || activity.isAfter(aggregate.getLastActivity())) {
+            aggregate.setLastActivity(activity);
+        }
+    }
+
+    private static AccountAggregate newAggregate(Long accountId, AggregatePeriod period, LocalDate periodStart) {
+        AccountAggregate aggregate = new AccountAggregate();
+        aggregate.setAccountId(accountId);
+        aggregate.setPeriodType(period);
+        aggregate.setPeriodStart(periodStart);
+        return aggregate;
+    }
+
+    // sum of the period's slot rows (a single row for regular accounts)
+    private static AccountAggregate pick(List<AccountAggregate> rows, AggregatePeriod period, LocalDate periodStart) {
+        AccountAggregate total = new AccountAggregate();
+        rows.stream()
+            .filter(a -> a.getPeriodType() == period && a.getPeriodStart().equals(periodStart))
+            .forEach(a -> {
+                total.setDepositCount(total.getDepositCount() + a.getDepositCount());
+                total.setDepositTotal(total.getDepositTotal().add(a.getDepositTotal()));
+                total.setWithdrawalCount(total.getWithdrawalCount() + a.getWithdrawalCount());
+                total.setWithdrawalTotal(total.getWithdrawalTotal().add(a.getWithdrawalTotal()));
+                if (total.getLastActivity() == null
+                        || (a.getLastActivity() != null && a.getLastActivity().isAfter(total.getLastActivity()))) {
+                    total.setLastActivity(a.getLastActivity());
+                }
+            });
+        return total;
+    }
+
+    private static PeriodTotalsDto toDto(AccountAggregate aggregate) {
+        return new PeriodTotalsDto(
+            aggregate.getDepositCount(),
+            aggregate.getDepositTotal(),
+            aggregate.getWithdrawalCount(),
+            aggregate.getWithdrawalTotal()
+        );
+    }
+}
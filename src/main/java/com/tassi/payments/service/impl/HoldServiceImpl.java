@@ -0,0 +1,286 @@
+package com.tassi.payments.service.impl;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tassi.payments.config.HoldProperties;
+import com.tassi.payments.jfr.OperationTrace;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.model.Hold;
+import com.tassi.payments.model.HoldStatus;
+import com.tassi.payments.model.OutboxEvent;
+import com.tassi.payments.model.Transaction;
+import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.HoldRepository;
+import com.tassi.payments.repository.OutboxEventRepository;
+import com.tassi.payments.repository.TransactionRepository;
+import com.tassi.payments.service.AccountChangedEvent;
+import com.tassi.payments.service.AccountState;
+import com.tassi.payments.service.AccountSummaryService;
+import com.tassi.payments.service.BalanceSlotService;
+import com.tassi.payments.service.HoldExpiryWheel;
+import com.tassi.payments.service.HoldService;
+import com.tassi.payments.service.VelocityGuard;
+
+/**
+ * Authorize/capture/release. Authorizing only moves the amount into ACCOUNTS.held_amount, so the
+ * ledger balance is written once, on capture. Every transition locks the account row first and
+ * the hold after it, the same order the expiry wheel uses.
+ */
+@Service
+public class HoldServiceImpl implements HoldService {
+
+    private final AccountRepository accountRepository;
+    private final HoldRepository holdRepository;
+    private final TransactionRepository transactionRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountSummaryService accountSummaryService;
+    private final BalanceSlotService balanceSlotService;
+    private final VelocityGuard velocityGuard;
+    private final HoldExpiryWheel holdExpiryWheel;
+    private final HoldProperties properties;
+
+    public HoldServiceImpl(AccountRepository accountRepository,
+                           HoldRepository holdRepository,
+                           TransactionRepository transactionRepository,
+                           OutboxEventRepository outboxEventRepository,
+                           ApplicationEventPublisher eventPublisher,
+                           AccountSummaryService accountSummaryService,
+                           BalanceSlotService balanceSlotService,
+                           VelocityGuard velocityGuard,
+                           HoldExpiryWheel holdExpiryWheel,
+                           HoldProperties properties) {
+        this.accountRepository = accountRepository;
+        this.holdRepository = holdRepository;
+        this.transactionRepository = transactionRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.accountSummaryService = accountSummaryService;
+        this.balanceSlotService = balanceSlotService;
+        this.velocityGuard = velocityGuard;
+        this.holdExpiryWheel = holdExpiryWheel;
+        this.properties = properties;
+    }
+
+    // authorization
+    @Override
+    @Transactional
+    public Hold authorize(Long accountId, BigDecimal amount, Duration ttl) {
+        OperationTrace trace = OperationTrace.begin("authorize", accountId);
+        try {
+            Hold hold = authorize(trace, accountId, amount, ttl);
+            trace.success();
+            return hold;
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
+    }
+
+    private Hold authorize(OperationTrace trace, Long accountId, BigDecimal amount, Duration ttl) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Hold amount must be positive.");
+        }
+        Duration lifetime = ttl == null ? properties.getDefaultTtl() : ttl;
+        if (lifetime.isNegative() || lifetime.isZero() || lifetime.compareTo(properties.getMaxTtl()) > 0) {
+            throw new IllegalArgumentException("Hold lifetime must be positive and at most " + properties.getMaxTtl() + ".");
+        }
+
+        trace.phase("lock");
+        Account account = accountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+
+        trace.phase("validate");
+        if (!account.getIsActiveFlag()) {
+            throw new IllegalStateException("Account is blocked.");
+        }
+        if (ledgerBalance(account).subtract(account.heldOrZero()).compareTo(amount) < 0) {
+            throw new IllegalStateException("Insufficient balance for hold.");
+        }
+        if (account.getDailyWithdrawalLimit().compareTo(amount) < 0) {
+            throw new IllegalStateException("Hold amount exceeds daily limit.");
+        }
+        trace.phase("velocity");
+        velocityGuard.reserve(accountId, account.getAccountType(), amount);
+
+        trace.phase("insert");
+        LocalDateTime now = LocalDateTime.now();
+        Hold hold = holdRepository.save(new Hold(null, accountId, amount, HoldStatus.ACTIVE, now, now.plus(lifetime), null, null, null));
+
+        trace.phase("balance");
+        account.setHeldAmount(account.heldOrZero().add(amount));
+        account.bumpStateVersion();
+        accountRepository.save(account);
+
+        trace.phase("record");
+        holdExpiryWheel.schedule(hold.getIdHold(), hold.getExpiresAt());
+        publishChange(account);
+        return hold;
+    }
+
+    // capture; an authorization granted before the account was blocked is still honored
+    @Override
+    @Transactional
+    public Hold capture(Long holdId, BigDecimal amount) {
+        Long accountId = holdRepository.findAccountId(holdId)
+            .orElseThrow(() -> new IllegalArgumentException("Hold not found."));
+        OperationTrace trace = OperationTrace.begin("capture", accountId);
+        try {
+            Hold hold = capture(trace, accountId, holdId, amount);
+            trace.success();
+            return hold;
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
+    }
+
+    private Hold capture(OperationTrace trace, Long accountId, Long holdId, BigDecimal amount) {
+        trace.phase("lock");
+        Account account = accountRepository.findByIdForUpdate(accountId)
+            .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+        Hold hold = holdRepository.findById(holdId).orElseThrow();
+
+        trace.phase("validate");
+        requireActive(hold);
+        BigDecimal captured = amount == null ? hold.getAmount() : amount;
+        if (captured.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Capture value must be positive.");
+        }
+        if (captured.compareTo(hold.getAmount()) > 0) {
+            throw new IllegalArgumentException("Capture value exceeds the held amount.");
+        }
+        // the hold covered it unless batch fees have eaten into the balance since
+        BigDecimal heldAfter = account.heldOrZero().subtract(hold.getAmount());
+        if (ledgerBalance(account).subtract(heldAfter).compareTo(captured) < 0) {
+            throw new IllegalStateException("Insufficient balance for capture.");
+        }
+
+        // the row is flushed before any slot update, which changes ACCOUNTS behind the entity's back
+        trace.phase("balance");
+        account.setHeldAmount(heldAfter);
+        int slotCount = account.getSlotCount() == null ? 0 : account.getSlotCount();
+        if (slotCount == 0) {
+            account.setBalance(account.getBalance().subtract(captured));
+        }
+        accountRepository.saveAndFlush(account);
+
+        trace.phase("insert");
+        Transaction transaction = new Transaction();
+        transaction.setAccount(account);
+        transaction.setValue(captured.negate());
+        transaction.setTransactionDate(LocalDateTime.now());
+        transactionRepository.save(transaction);
+
+        int slot = 0;
+        if (slotCount > 0) {
+            slot = balanceSlotService.withdraw(accountId, slotCount, captured, transaction.getIdTransaction());
+        } else {
+            account.setLastTransactionId(transaction.getIdTransaction());
+        }
+
+        hold.setStatus(HoldStatus.CAPTURED);
+        hold.setCapturedAmount(captured);
+        hold.setTransactionId(transaction.getIdTransaction());
+        hold.setResolvedAt(transaction.getTransactionDate());
+
+        trace.phase("record");
+        holdExpiryWheel.cancel(holdId);
+        AccountState state = balanceSlotService.state(account);
+        recordEvent(accountId, transaction, state.balance());
+        if (slotCount > 0) {
+            accountSummaryService.record(accountId, transaction.getValue(), transaction.getTransactionDate(), slot);
+        } else {
+            accountSummaryService.record(accountId, transaction.getValue(), transaction.getTransactionDate());
+        }
+        publish(state);
+        return hold;
+    }
+
+    // release
+    @Override
+    @Transactional
+    public Hold release(Long holdId) {
+        Long accountId = holdRepository.findAccountId(holdId)
+            .orElseThrow(() -> new IllegalArgumentException("Hold not found."));
+        OperationTrace trace = OperationTrace.begin("release", accountId);
+        try {
+            trace.phase("lock");
+            Account account = accountRepository.findByIdForUpdate(accountId)
+                .orElseThrow(() -> new IllegalArgumentException("Account not found."));
+            Hold hold = holdRepository.findById(holdId).orElseThrow();
+
+            trace.phase("validate");
+            requireActive(hold);
+
+            trace.phase("balance");
+            account.setHeldAmount(account.heldOrZero().subtract(hold.getAmount()));
+            account.bumpStateVersion();
+            accountRepository.save(account);
+            hold.setStatus(HoldStatus.RELEASED);
+            hold.setResolvedAt(LocalDateTime.now());
+
+            trace.phase("record");
+            holdExpiryWheel.cancel(holdId);
+            publishChange(account);
+            trace.success();
+            return hold;
+        } catch (RuntimeException e) {
+            trace.failure(e);
+            throw e;
+        }
+    }
+
+    // hold lookup
+    @Override
+    @Transactional(readOnly = true)
+    public Hold getHold(Long holdId) {
+        return holdRepository.findById(holdId)
+            .orElseThrow(() -> new IllegalArgumentException("Hold not found."));
+    }
+
+    // an expired hold may still be ACTIVE until the wheel gets to it, but it can't be captured
+    private static void requireActive(Hold hold) {
+        if (hold.getStatus() != HoldStatus.ACTIVE) {
+            throw new IllegalStateException("Hold is not active.");
+        }
+        if (!hold.getExpiresAt().isAfter(LocalDateTime.now())) {
+            throw new IllegalStateException("Hold has expired.");
+        }
+    }
+
+    // ACCOUNTS.balance plus slots for hot accounts; the caller holds the row lock
+    private BigDecimal ledgerBalance(Account account) {
+        if (account.getSlotCount() != null && account.getSlotCount() > 0) {
+            return accountRepository.findTotalBalance(account.getIdAccount());
+        }
+        return account.getBalance();
+    }
+
+    private void recordEvent(Long accountId, Transaction transaction, BigDecimal balanceAfter) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAccountId(accountId);
+        event.setTransactionId(transaction.getIdTransaction());
+        event.setEventType("CAPTURE");
+        event.setValue(transaction.getValue().abs());
+        event.setBalanceAfter(balanceAfter);
+        event.setCreatedAt(transaction.getTransactionDate());
+        outboxEventRepository.save(event);
+    }
+
+    private void publishChange(Account account) {
+        publish(balanceSlotService.state(account));
+    }
+
+    // delivered to listeners only once the surrounding transaction commits
+    private void publish(AccountState state) {
+        eventPublisher.publishEvent(new AccountChangedEvent(state.accountId(), state.personId(),
+            state.balance(), state.active(), state.version()));
+    }
+}
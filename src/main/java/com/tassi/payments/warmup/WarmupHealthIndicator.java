@@ -0,0 +1,50 @@
+package com.tassi.payments.warmup;
+
+import java.util.Map;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import com.tassi.payments.config.FirstRequestLatencyInterceptor;
+
+// "warmup" in the readiness group: out of service until the warm-up is over, then its report
+@Component
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final WarmupRunner warmupRunner;
+    private final FirstRequestLatencyInterceptor firstRequestLatency;
+
+    public WarmupHealthIndicator(WarmupRunner warmupRunner, FirstRequestLatencyInterceptor firstRequestLatency) {
+        this.warmupRunner = warmupRunner;
+        this.firstRequestLatency = firstRequestLatency;
+    }
+
+    @Override
+    public Health health() {
+        WarmupRunner.State state = warmupRunner.state();
+        if (state == WarmupRunner.State.PENDING || state == WarmupRunner.State.RUNNING) {
+            return Health.outOfService()
+                .withDetail("state", state)
+                .withDetail("rounds", warmupRunner.rounds())
+                .build();
+        }
+
+        Health.Builder health = Health.up().withDetail("state", state);
+        WarmupRunner.WarmupReport report = warmupRunner.report();
+        if (report != null) {
+            health.withDetail("durationMillis", report.duration().toMillis())
+                .withDetail("rounds", report.rounds())
+                .withDetail("settled", report.settled())
+                .withDetail("firstRoundMicrosPerOp", report.firstRoundMicrosPerOp())
+                .withDetail("lastRoundMicrosPerOp", report.lastRoundMicrosPerOp())
+                .withDetail("compileMillis", report.compileMillis());
+        }
+        if (warmupRunner.error() != null) {
+            health.withDetail("error", warmupRunner.error());
+        }
+        Map<String, Object> firstRequests = firstRequestLatency.summary();
+        health.withDetail("firstRequests", firstRequests != null ? firstRequests : Map.of("recorded", firstRequestLatency.recorded()));
+        return health.build();
+    }
+}
@@ -0,0 +1,214 @@
+package com.tassi.payments.warmup;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.config.WarmupProperties;
+import com.tassi.payments.controller.AccountController;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountService;
+import com.tassi.payments.service.AccountVersionCache;
+
+/**
+ * Optional warm-up run before the instance reports ready, so the JIT has compiled the hot paths
+ * before real traffic arrives instead of while serving it.
+ *
+ * Each round creates a throwaway person and accounts, deposits, withdraws and reads balance,
+ * statements and summary through the controller, serializing the bodies like a response would,
+ * all in one transaction that is rolled back: nothing is committed, no change event or outbox
+ * row escapes, and velocity reservations are undone. Rounds repeat until JIT compilation takes
+ * a negligible share of a round for a few rounds in a row, or the time limit is reached.
+ */
+@Component
+public class WarmupRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    public enum State { DISABLED, PENDING, RUNNING, DONE, FAILED }
+
+    // operations per throwaway account in a round, for the per-operation latency
+    private static final int OPERATIONS_PER_ACCOUNT = 9;
+
+    private final WarmupProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final PersonRepository personRepository;
+    private final AccountService accountService;
+    private final AccountController accountController;
+    private final AccountVersionCache accountVersionCache;
+    private final ObjectMapper objectMapper;
+
+    private volatile State state;
+    private volatile int rounds;
+    private volatile WarmupReport report;
+    private volatile String error;
+
+    public WarmupRunner(WarmupProperties properties,
+                        TransactionTemplate transactionTemplate,
+                        PersonRepository personRepository,
+                        AccountService accountService,
+                        AccountController accountController,
+                        AccountVersionCache accountVersionCache,
+                        ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+        this.personRepository = personRepository;
+        this.accountService = accountService;
+        this.accountController = accountController;
+        this.accountVersionCache = accountVersionCache;
+        this.objectMapper = objectMapper;
+        this.state = properties.isEnabled() ? State.PENDING : State.DISABLED;
+    }
+
+    // off the startup thread, so the readiness probe can be answered (not ready) meanwhile
+    @EventListener(ApplicationReadyEvent.class)
+    public void startOnReady() {
+        if (state == State.PENDING) {
+            Thread.ofPlatform().name("warmup").daemon().start(this::run);
+        }
+    }
+
+    public void run() {
+        state = State.RUNNING;
+        try {
+            report = warmUp();
+            state = State.DONE;
+            log.info("Warm-up {} in {} ms: {} rounds, {} us/op in the first round and {} us/op in the last, {} ms of JIT compilation",
+                report.settled() ? "settled" : "reached the time limit", report.duration().toMillis(), report.rounds(),
+                report.firstRoundMicrosPerOp(), report.lastRoundMicrosPerOp(), report.compileMillis());
+        } catch (RuntimeException e) {
+            // a failed warm-up only costs a cold start, it must not keep the instance out of service
+            error = e.toString();
+            state = State.FAILED;
+            log.warn("Warm-up failed after {} rounds, serving cold", rounds, e);
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public int rounds() {
+        return rounds;
+    }
+
+    // null until the warm-up is done
+    public WarmupReport report() {
+        return report;
+    }
+
+    public String error() {
+        return error;
+    }
+
+    private WarmupReport warmUp() {
+        CompilationMXBean compiler = ManagementFactory.getCompilationMXBean();
+        boolean compileTimeKnown = compiler != null && compiler.isCompilationTimeMonitoringSupported();
+        long startCompile = compileTimeKnown ? compiler.getTotalCompilationTime() : 0;
+
+        long started = System.nanoTime();
+        long deadline = started + properties.getMaxDuration().toNanos();
+        long previousCompile = startCompile;
+        long firstMicrosPerOp = 0;
+        long lastMicrosPerOp = 0;
+        int stable = 0;
+        boolean settled = false;
+
+        while (true) {
+            long roundStart = System.nanoTime();
+            int operations = round();
+            long roundNanos = System.nanoTime() - roundStart;
+            rounds++;
+
+            lastMicrosPerOp = roundNanos / 1000 / operations;
+            if (rounds == 1) {
+                firstMicrosPerOp = lastMicrosPerOp;
+            }
+            if (compileTimeKnown) {
+                long compile = compiler.getTotalCompilationTime();
+                double share = (compile - previousCompile) * 1_000_000.0 / roundNanos;
+                stable = share < properties.getSettleRatio() ? stable + 1 : 0;
+                previousCompile = compile;
+            }
+
+            // without compilation times only the minimum rounds are run
+            if (rounds >= properties.getMinRounds() && (!compileTimeKnown || stable >= properties.getStableRounds())) {
+                settled = true;
+                break;
+            }
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        return new WarmupReport(Duration.ofNanos(System.nanoTime() - started), rounds, settled,
+            firstMicrosPerOp, lastMicrosPerOp, compileTimeKnown ? previousCompile - startCompile : -1);
+    }
+
+    // one round in a rolled-back transaction; returns the number of operations
+    private int round() {
+        List<Long> accountIds = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                Person person = personRepository.save(new Person(null, "warmup", cpf(), null));
+                for (int i = 0; i < properties.getAccountsPerRound(); i++) {
+                    Account account = accountService.createAccount(person.getIdPerson(), new BigDecimal("100.00"),
+                        new BigDecimal("1000.00"), 1);
+                    Long accountId = account.getIdAccount();
+                    accountIds.add(accountId);
+
+                    accountService.deposit(accountId, new BigDecimal("25.50"));
+                    accountService.deposit(accountId, new BigDecimal("10.00"));
+                    accountService.withdraw(accountId, new BigDecimal("12.25"));
+
+                    serialize(accountController.getBalance(accountId, null));
+                    serialize(accountController.getBalances(accountId, null));
+                    serialize(accountController.getStatement(accountId, MediaType.APPLICATION_JSON_VALUE, null));
+                    serialize(accountController.getColumnarStatement(accountId, null));
+                    serialize(accountController.getSummary(accountId));
+                }
+            });
+        } finally {
+            // versions were cached for accounts that no longer exist
+            accountVersionCache.evictAccounts(accountIds);
+        }
+        return Math.max(1, properties.getAccountsPerRound() * OPERATIONS_PER_ACCOUNT);
+    }
+
+    private void serialize(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        if (body == null || body instanceof byte[]) {
+            return;
+        }
+        try {
+            objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Warm-up response could not be serialized.", e);
+        }
+    }
+
+    // never collides with a real CPF, which is digits only
+    private static String cpf() {
+        return String.format("W%013d", System.nanoTime() % 10_000_000_000_000L);
+    }
+
+    public record WarmupReport(Duration duration, int rounds, boolean settled,
+                               long firstRoundMicrosPerOp, long lastRoundMicrosPerOp, long compileMillis) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.tassi.payments.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(List.of("replica-0", "replica-1"));
+
+    // a read-only transaction, as the routing sees it
+    @BeforeEach
+    void setUp() {
+        routing.setReplicaHealthy(0, true);
+        routing.setReplicaHealthy(1, true);
+        routing.setReplicaPosition(0, 100);
+        routing.setReplicaPosition(1, 50);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        RoutingContext.clear();
+    }
+
+    @Test
+    void testRequest_KeepsOneReplica() {
+        // Arrange
+        RoutingContext.begin(false, 0);
+
+        // Act
+        Object first = routing.determineCurrentLookupKey();
+        Object second = routing.determineCurrentLookupKey();
+        Object third = routing.determineCurrentLookupKey();
+
+        // Assert
+        assertNotEquals(ReadWriteRoutingDataSource.PRIMARY, first);
+        assertEquals(first, second);
+        assertEquals(first, third);
+    }
+
+    @Test
+    void testOutsideRequests_RoundRobin() {
+        // Act
+        Set<Object> targets = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            targets.add(routing.determineCurrentLookupKey());
+        }
+
+        // Assert
+        assertEquals(Set.of("replica-0", "replica-1"), targets);
+    }
+
+    @Test
+    void testWritePosition_OnlyReplicasThatReplayedIt() {
+        // Act & Assert
+        for (int i = 0; i < 4; i++) {
+            RoutingContext.begin(false, 80);
+            assertEquals("replica-0", routing.determineCurrentLookupKey());
+        }
+        RoutingContext.begin(false, 101);
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testPinnedReplicaOutOfRotation_FallsBackToPrimary() {
+        // Arrange
+        RoutingContext.begin(false, 80);
+        routing.determineCurrentLookupKey();
+
+        // Act
+        routing.setReplicaHealthy(0, false);
+
+        // Assert
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testParseWalPosition() {
+        assertEquals(0x16_B374D848L, ReplicaLagMonitor.parseWalPosition("16/B374D848"));
+        assertTrue(ReplicaLagMonitor.parseWalPosition("1/0") > ReplicaLagMonitor.parseWalPosition("0/FFFFFFFF"));
+        assertEquals(0, ReplicaLagMonitor.parseWalPosition(null));
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 import com.tassi.payments.dto.AccountRequest;
 import com.tassi.payments.dto.OperationRequest;
 import com.tassi.payments.model.Person;
@@ -248,4 +249,109 @@ class AccountControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray());
     }
+
+    @Test
+    void testGetSummary() throws Exception {
+        // First create an account
+        AccountRequest accountRequest = new AccountRequest();
+        accountRequest.setPersonId(testPerson.getIdPerson());
+        accountRequest.setInitialDeposit(new BigDecimal("1000.00"));
+        accountRequest.setDailyWithdrawalLimit(new BigDecimal("500.00"));
+        accountRequest.setAccountType(1);
+
+        String response = mockMvc.perform(post("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        Long accountId = objectMapper.readTree(response).get("idAccount").asLong();
+
+        // Perform some transactions
+        OperationRequest operation = new OperationRequest();
+        operation.setValue(new BigDecimal("200.00"));
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operation)))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operation)))
+                .andExpect(status().isOk());
+
+        operation.setValue(new BigDecimal("50.00"));
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/withdraw")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operation)))
+                .andExpect(status().isOk());
+
+        // Get summary
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.balance").value(1350.00))
+                .andExpect(jsonPath("$.transactionCount").value(3))
+                .andExpect(jsonPath("$.today.depositCount").value(2))
+                .andExpect(jsonPath("$.today.depositTotal").value(400.00))
+                .andExpect(jsonPath("$.thisMonth.withdrawalCount").value(1))
+                .andExpect(jsonPath("$.thisMonth.withdrawalTotal").value(50.00));
+
+        // Rebuild gives the same totals
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/summary/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionCount").value(3))
+                .andExpect(jsonPath("$.allTime.depositTotal").value(400.00));
+    }
+
+    @Test
+    void testGetStatement_NegotiatedFormats() throws Exception {
+        // First create an account
+        AccountRequest accountRequest = new AccountRequest();
+        accountRequest.setPersonId(testPerson.getIdPerson());
+        accountRequest.setInitialDeposit(new BigDecimal("1000.00"));
+        accountRequest.setDailyWithdrawalLimit(new BigDecimal("500.00"));
+        accountRequest.setAccountType(1);
+
+        String response = mockMvc.perform(post("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        Long accountId = objectMapper.readTree(response).get("idAccount").asLong();
+
+        OperationRequest operation = new OperationRequest();
+        operation.setValue(new BigDecimal("200.00"));
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operation)))
+                .andExpect(status().isOk());
+        operation.setValue(new BigDecimal("50.00"));
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/withdraw")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(operation)))
+                .andExpect(status().isOk());
+
+        // Default stays row-oriented JSON
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.transactions.length()").value(2));
+
+        // Columnar JSON
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .accept("application/vnd.payments.columnar+json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id.length()").value(2))
+                .andExpect(jsonPath("$.types.length()").value(2))
+                .andExpect(jsonPath("$.amount[0]").value(50.00));
+
+        // CBOR
+        byte[] cbor = mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertEquals(2, new CBORMapper()
+                .readTree(cbor).get("transactions").size());
+    }
 }
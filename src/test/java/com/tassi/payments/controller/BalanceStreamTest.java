@@ -0,0 +1,95 @@
+package com.tassi.payments.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountService;
+
+// not @Transactional: updates are pushed after commit
+@SpringBootTest(properties = "payments.slots.auto-enabled=false")
+@AutoConfigureMockMvc
+class BalanceStreamTest {
+
+    // complete events only: an event is written to the response in several parts
+    private static final Pattern BALANCE = Pattern.compile("event:balance\ndata:(\\{[^\n]*\\})\n\n");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Balance Stream Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1987, 7, 7));
+        Long personId = personRepository.save(person).getIdPerson();
+        accountId = accountService.createAccount(personId, new BigDecimal("100.00"), new BigDecimal("500.00"), 1).getIdAccount();
+    }
+
+    @Test
+    void testStream_SnapshotThenVersionedUpdate() throws Exception {
+        // Arrange
+        MvcResult result = mockMvc.perform(get("/api/v1/accounts/{id}/balance/stream", accountId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        List<String> snapshot = awaitEvents(result, 1);
+
+        // Act
+        accountService.deposit(accountId, new BigDecimal("25.00"));
+        String version = accountService.getState(accountId).version();
+        List<String> events = awaitEvents(result, 2);
+
+        // Assert
+        assertEquals(1, snapshot.size());
+        assertTrue(snapshot.get(0).contains("\"balance\":100.00"));
+        assertEquals(2, events.size());
+        assertTrue(events.get(1).contains("\"balance\":125.00"));
+        assertTrue(events.get(1).contains("\"version\":\"" + version + "\""));
+    }
+
+    // updates are sent from the registry's own thread, so they arrive asynchronously
+    private static List<String> awaitEvents(MvcResult result, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<String> events = events(result);
+        while (events.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            events = events(result);
+        }
+        return events;
+    }
+
+    private static List<String> events(MvcResult result) throws Exception {
+        List<String> events = new ArrayList<>();
+        Matcher matcher = BALANCE.matcher(result.getResponse().getContentAsString());
+        while (matcher.find()) {
+            events.add(matcher.group(1));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,142 @@
+package com.tassi.payments.controller;
+
+import static org.hamcrest.Matchers.endsWith;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.dto.AccountRequest;
+import com.tassi.payments.dto.OperationRequest;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+
+// not @Transactional: version tags are updated after commit
+@SpringBootTest
+@AutoConfigureMockMvc
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Person person = new Person();
+        person.setName("ETag Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1985, 5, 5));
+        person = personRepository.save(person);
+
+        AccountRequest request = new AccountRequest();
+        request.setPersonId(person.getIdPerson());
+        request.setInitialDeposit(new BigDecimal("1000.00"));
+        request.setDailyWithdrawalLimit(new BigDecimal("500.00"));
+        request.setAccountType(1);
+
+        String response = mockMvc.perform(post("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        accountId = objectMapper.readTree(response).get("idAccount").asLong();
+    }
+
+    @Test
+    void testBalance_NotModifiedUntilDeposit() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/accounts/" + accountId + "/balance"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/balance").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        deposit("100.00");
+
+        String newEtag = mockMvc.perform(get("/api/v1/accounts/" + accountId + "/balance").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1100.00"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, newEtag);
+
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/balance").header(HttpHeaders.IF_NONE_MATCH, newEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testStatement_EtagPerRepresentationAndBlockState() throws Exception {
+        deposit("50.00");
+
+        String jsonEtag = mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String columnarEtag = mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .accept("application/vnd.payments.columnar+json"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(jsonEtag, columnarEtag);
+
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement").header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .accept("application/vnd.payments.columnar+json")
+                .header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk());
+
+        // blocking changes the version even though no transaction was written
+        mockMvc.perform(patch("/api/v1/accounts/" + accountId + "/block"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement").header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testStatement_RepresentationFollowsQualityValues() throws Exception {
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .header(HttpHeaders.ACCEPT, "application/cbor;q=0.1, application/json"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-json\"")));
+
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .header(HttpHeaders.ACCEPT, "application/json;q=0.5, application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-cbor\"")));
+
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/statement")
+                .header(HttpHeaders.ACCEPT, "application/cbor;q=0, */*"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, endsWith("-json\"")));
+    }
+
+    private void deposit(String value) throws Exception {
+        OperationRequest request = new OperationRequest();
+        request.setValue(new BigDecimal(value));
+        mockMvc.perform(post("/api/v1/accounts/" + accountId + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,126 @@
+package com.tassi.payments.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountService;
+import com.tassi.payments.service.BalanceSlotService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// background pollers are slowed down so they do not show up in the statement counts
+@SpringBootTest(properties = {
+    "payments.outbox.poll-interval-ms=3600000",
+    "payments.slots.evaluation-interval-ms=3600000"
+})
+@AutoConfigureMockMvc
+class PortfolioTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long personId;
+    private Long first;
+    private Long second;
+    private Long empty;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Portfolio Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1975, 7, 7));
+        personId = personRepository.save(person).getIdPerson();
+
+        first = accountService.createAccount(personId, new BigDecimal("100.00"), new BigDecimal("500.00"), 1).getIdAccount();
+        second = accountService.createAccount(personId, new BigDecimal("50.00"), new BigDecimal("500.00"), 2).getIdAccount();
+        empty = accountService.createAccount(personId, BigDecimal.ZERO, new BigDecimal("500.00"), 1).getIdAccount();
+
+        for (int i = 1; i <= 3; i++) {
+            accountService.deposit(first, new BigDecimal(i + ".00"));
+        }
+        // hot account: part of the balance lives in slot rows
+        balanceSlotService.promote(second, 4);
+        accountService.deposit(second, new BigDecimal("10.00"));
+    }
+
+    @Test
+    void testPortfolio_BalancesTotalAndPreviewInTwoQueries() throws Exception {
+        // Arrange
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long before = statistics.getPrepareStatementCount();
+
+        // Act
+        String body = mockMvc.perform(get("/api/v1/persons/" + personId + "/accounts").param("recent", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long statements = statistics.getPrepareStatementCount() - before;
+
+        // Assert
+        JsonNode portfolio = objectMapper.readTree(body);
+        assertEquals(0, new BigDecimal("166.00").compareTo(portfolio.get("totalBalance").decimalValue()));
+        assertEquals(3, portfolio.get("accounts").size());
+
+        JsonNode firstAccount = portfolio.get("accounts").get(0);
+        assertEquals(first, firstAccount.get("accountId").asLong());
+        assertEquals(0, new BigDecimal("106.00").compareTo(firstAccount.get("balance").decimalValue()));
+        assertEquals(2, firstAccount.get("recentTransactions").size());
+        assertEquals(0, new BigDecimal("3.00").compareTo(firstAccount.get("recentTransactions").get(0).get("amount").decimalValue()));
+
+        JsonNode secondAccount = portfolio.get("accounts").get(1);
+        assertEquals(second, secondAccount.get("accountId").asLong());
+        assertEquals(0, new BigDecimal("60.00").compareTo(secondAccount.get("balance").decimalValue()));
+        assertEquals(1, secondAccount.get("recentTransactions").size());
+
+        assertEquals(empty, portfolio.get("accounts").get(2).get("accountId").asLong());
+        assertEquals(0, portfolio.get("accounts").get(2).get("recentTransactions").size());
+
+        assertEquals(2, statements);
+    }
+
+    @Test
+    void testPortfolio_NoPreviewByDefault() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/" + personId + "/accounts"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts.length()").value(3))
+                .andExpect(jsonPath("$.accounts[0].recentTransactions").doesNotExist());
+    }
+
+    @Test
+    void testPortfolio_UnknownPerson() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/999999/accounts"))
+                .andExpect(status().isNotFound());
+    }
+}
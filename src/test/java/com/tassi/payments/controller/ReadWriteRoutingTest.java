@@ -0,0 +1,100 @@
+package com.tassi.payments.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jakarta.servlet.http.Cookie;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.config.ReadWriteRoutingConfig;
+import com.tassi.payments.dto.AccountRequest;
+import com.tassi.payments.dto.OperationRequest;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+import com.zaxxer.hikari.HikariDataSource;
+
+// two H2 databases stand in for primary and replica; the replica is a snapshot that never catches up
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:rw_primary;DB_CLOSE_DELAY=-1",
+    "payments.datasource.replicas[0].url=jdbc:h2:mem:rw_replica;DB_CLOSE_DELAY=-1",
+    "payments.datasource.replicas[0].username=sa",
+    "payments.datasource.replicas[0].password=",
+    "payments.datasource.lag-query=",
+    "payments.datasource.write-position-query=",
+    "payments.datasource.replay-position-query=",
+    "payments.datasource.read-your-writes-window=1h"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadWriteRoutingConfig.ReplicaPools replicaPools;
+
+    @Test
+    void testReads_GoToReplicaExceptForClientWithWriteCookie() throws Exception {
+        // Arrange: an account on the primary, snapshotted into the replica
+        Person person = new Person();
+        person.setName("Routing Person");
+        person.setCpf("555.444.333-22");
+        person.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        person = personRepository.save(person);
+
+        AccountRequest accountRequest = new AccountRequest();
+        accountRequest.setPersonId(person.getIdPerson());
+        accountRequest.setInitialDeposit(new BigDecimal("1000.00"));
+        accountRequest.setDailyWithdrawalLimit(new BigDecimal("500.00"));
+        accountRequest.setAccountType(1);
+
+        String response = mockMvc.perform(post("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(accountRequest)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long accountId = objectMapper.readTree(response).get("idAccount").asLong();
+
+        new JdbcTemplate(primaryDataSource).execute("SCRIPT TO 'target/rw_primary.sql'");
+        new JdbcTemplate(replicaPools.pools().get(0)).execute("RUNSCRIPT FROM 'target/rw_primary.sql'");
+
+        // Act: the writer deposits on the primary only
+        OperationRequest deposit = new OperationRequest();
+        deposit.setValue(new BigDecimal("100.00"));
+        Cookie token = mockMvc.perform(post("/api/v1/accounts/" + accountId + "/deposit")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(deposit)))
+                .andExpect(status().isOk())
+                .andExpect(cookie().exists("payments-rw"))
+                .andReturn().getResponse().getCookie("payments-rw");
+
+        // Assert: another client reads the (stale) replica, the writer reads its own write
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/balance"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1000.00"));
+
+        mockMvc.perform(get("/api/v1/accounts/" + accountId + "/balance").cookie(token))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1100.00"));
+    }
+}
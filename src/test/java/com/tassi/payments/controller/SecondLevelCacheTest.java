@@ -0,0 +1,117 @@
+package com.tassi.payments.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.dto.AccountRequest;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// not @Transactional: each request must run in its own session for the L2 cache to matter;
+// statements are counted per request thread, so scheduled jobs don't show up in the counts
+@SpringBootTest
+@AutoConfigureMockMvc
+@Import(SqlBudgetConfig.class)
+class SecondLevelCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Person testPerson;
+
+    @BeforeEach
+    void setUp() {
+        testPerson = new Person();
+        testPerson.setName("Cache Person");
+        testPerson.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        testPerson.setDateOfBirth(LocalDate.of(1985, 3, 3));
+        testPerson = personRepository.save(testPerson);
+
+        entityManagerFactory.getCache().evictAll();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testGetPerson_SecondReadSkipsDatabase() throws Exception {
+        long cold = statementsFor(() -> mockMvc.perform(get("/api/v1/persons/" + testPerson.getIdPerson()))
+                .andExpect(status().isOk()));
+        long warm = statementsFor(() -> mockMvc.perform(get("/api/v1/persons/" + testPerson.getIdPerson()))
+                .andExpect(status().isOk()));
+
+        assertEquals(1, cold);
+        assertEquals(0, warm);
+        assertTrue(statistics.getDomainDataRegionStatistics("person").getHitCount() > 0);
+    }
+
+    @Test
+    void testCreateAccount_PersonLookupHitsCache() throws Exception {
+        AccountRequest request = new AccountRequest();
+        request.setPersonId(testPerson.getIdPerson());
+        request.setInitialDeposit(new BigDecimal("10.00"));
+        request.setDailyWithdrawalLimit(new BigDecimal("5.00"));
+        request.setAccountType(1);
+        String body = objectMapper.writeValueAsString(request);
+
+        long cold = statementsFor(() -> mockMvc.perform(post("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()));
+        long warm = statementsFor(() -> mockMvc.perform(post("/api/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isCreated()));
+
+        // the cold request reads the person and inserts the account, the warm one only inserts
+        assertEquals(2, cold);
+        assertEquals(1, warm);
+    }
+
+    @Test
+    void testUpdatePerson_InvalidatesCachedEntry() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/" + testPerson.getIdPerson())).andExpect(status().isOk());
+
+        testPerson.setName("Renamed Person");
+        personRepository.save(testPerson);
+
+        mockMvc.perform(get("/api/v1/persons/" + testPerson.getIdPerson()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Renamed Person"));
+    }
+
+    private static long statementsFor(ThrowingRequest request) throws Exception {
+        return SqlBudget.recording(request.perform().andReturn()).statements().size();
+    }
+
+    @FunctionalInterface
+    private interface ThrowingRequest {
+        ResultActions perform() throws Exception;
+    }
+}
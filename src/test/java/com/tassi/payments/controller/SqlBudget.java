@@ -0,0 +1,29 @@
+package com.tassi.payments.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+// MockMvc matchers for the SQL recorded by SqlBudgetConfig during a request
+final class SqlBudget {
+
+    private SqlBudget() {
+    }
+
+    // at most `statements` round trips and `rows` fetched result set rows
+    static ResultMatcher atMost(int statements, int rows) {
+        return result -> {
+            SqlRecorder.Recording recording = recording(result);
+            assertTrue(recording.statements().size() <= statements && recording.rows() <= rows,
+                () -> "SQL budget of " + statements + " statements, " + rows + " rows exceeded by "
+                    + result.getRequest().getMethod() + " " + result.getRequest().getRequestURI() + ": " + recording);
+        };
+    }
+
+    static SqlRecorder.Recording recording(MvcResult result) {
+        Object recording = result.getRequest().getAttribute(SqlBudgetConfig.RECORDING_ATTRIBUTE);
+        assertNotNull(recording, "No SQL recording; is SqlBudgetConfig imported?");
+        return (SqlRecorder.Recording) recording;
+    }
+}
@@ -0,0 +1,66 @@
+package com.tassi.payments.controller;
+
+import java.io.IOException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Wraps the application DataSource in a datasource-proxy and records the SQL of every request
+ * handled through MockMvc; the recording is left on the request for {@link SqlBudget}.
+ */
+@TestConfiguration
+public class SqlBudgetConfig {
+
+    static final String RECORDING_ATTRIBUTE = SqlRecorder.Recording.class.getName();
+
+    // only the DataSource everything else uses; with replicas configured that is the routing proxy
+    @Bean
+    public static BeanPostProcessor sqlRecordingDataSource() {
+        SqlRecorder recorder = new SqlRecorder();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                        .listener(recorder)
+                        .methodListener(recorder)
+                        .proxyResultSet()
+                        .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    // outermost, so interceptors, the transaction commit and response writing are included
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> sqlRecordingFilter() {
+        FilterRegistrationBean<OncePerRequestFilter> registration = new FilterRegistrationBean<>(new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                request.setAttribute(RECORDING_ATTRIBUTE, SqlRecorder.start());
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    SqlRecorder.stop();
+                }
+            }
+        });
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,191 @@
+package com.tassi.payments.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.dto.AccountRequest;
+import com.tassi.payments.dto.OperationRequest;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+
+/**
+ * SQL budgets per endpoint: statements (round trips) and fetched rows, commit included. A new
+ * query on a hot path, a lazy load or a per-row fetch fails here with the statements listed.
+ *
+ * Not @Transactional, so each request commits like in production; reads run with the ETag
+ * versions and second-level cache as a client after a write would find them.
+ */
+@SpringBootTest(properties = "payments.slots.auto-enabled=false")
+@AutoConfigureMockMvc
+@Import(SqlBudgetConfig.class)
+class SqlBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private Long personId;
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Person person = new Person();
+        person.setName("Budget Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1980, 8, 8));
+        personId = personRepository.save(person).getIdPerson();
+
+        MvcResult created = perform(post("/api/v1/accounts"), account()).andReturn();
+        accountId = objectMapper.readTree(created.getResponse().getContentAsString()).get("idAccount").asLong();
+        for (int i = 0; i < 3; i++) {
+            perform(post("/api/v1/accounts/{id}/deposit", accountId), operation("10.00"));
+        }
+    }
+
+    @Test
+    void testCreateAccount() throws Exception {
+        perform(post("/api/v1/accounts"), account())
+            .andExpect(status().isCreated())
+            .andExpect(SqlBudget.atMost(1, 0));
+    }
+
+    @Test
+    void testDeposit() throws Exception {
+        perform(post("/api/v1/accounts/{id}/deposit", accountId), operation("25.00"))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(6, 2));
+    }
+
+    // the period aggregates are created by the first transaction of an account (and of each day),
+    // and the rate limiter looks up the account type once per bucket
+    @Test
+    void testDeposit_FirstOfAccount() throws Exception {
+        // Arrange
+        MvcResult created = perform(post("/api/v1/accounts"), account()).andReturn();
+        Long newAccountId = objectMapper.readTree(created.getResponse().getContentAsString()).get("idAccount").asLong();
+
+        // Act & Assert
+        perform(post("/api/v1/accounts/{id}/deposit", newAccountId), operation("25.00"))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(11, 3));
+    }
+
+    @Test
+    void testWithdraw() throws Exception {
+        perform(post("/api/v1/accounts/{id}/withdraw", accountId), operation("25.00"))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(6, 2));
+    }
+
+    @Test
+    void testBalance() throws Exception {
+        mockMvc.perform(get("/api/v1/accounts/{id}/balance", accountId))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(1, 1));
+    }
+
+    @Test
+    void testBalance_NotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/accounts/{id}/balance", accountId))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/accounts/{id}/balance", accountId).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(SqlBudget.atMost(0, 0));
+    }
+
+    @Test
+    void testBalances() throws Exception {
+        mockMvc.perform(get("/api/v1/accounts/{id}/balances", accountId))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(1, 1));
+    }
+
+    @Test
+    void testStatement() throws Exception {
+        mockMvc.perform(get("/api/v1/accounts/{id}/statement", accountId))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(3, 4));
+    }
+
+    @Test
+    void testStatement_Columnar() throws Exception {
+        mockMvc.perform(get("/api/v1/accounts/{id}/statement", accountId).accept("application/vnd.payments.columnar+json"))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(2, 4));
+    }
+
+    @Test
+    void testSummary() throws Exception {
+        mockMvc.perform(get("/api/v1/accounts/{id}/summary", accountId))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(2, 4));
+    }
+
+    @Test
+    void testBlock() throws Exception {
+        mockMvc.perform(patch("/api/v1/accounts/{id}/block", accountId))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(2, 1));
+    }
+
+    @Test
+    void testPersonAccounts() throws Exception {
+        mockMvc.perform(get("/api/v1/persons/{id}/accounts", personId))
+            .andExpect(status().isOk())
+            .andExpect(SqlBudget.atMost(1, 1));
+    }
+
+    @Test
+    void testBudgetExceeded_ListsStatements() {
+        // Act
+        AssertionError e = assertThrows(AssertionError.class, () -> mockMvc.perform(get("/api/v1/accounts/{id}/balances", accountId))
+            .andExpect(SqlBudget.atMost(0, 0)));
+
+        // Assert
+        assertTrue(e.getMessage().contains("GET /api/v1/accounts/" + accountId + "/balances"));
+        assertTrue(e.getMessage().contains("from accounts"));
+    }
+
+    private ResultActions perform(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return mockMvc.perform(request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(body)));
+    }
+
+    private AccountRequest account() {
+        AccountRequest request = new AccountRequest();
+        request.setPersonId(personId);
+        request.setInitialDeposit(new BigDecimal("100.00"));
+        request.setDailyWithdrawalLimit(new BigDecimal("500.00"));
+        request.setAccountType(1);
+        return request;
+    }
+
+    private static OperationRequest operation(String value) {
+        OperationRequest request = new OperationRequest();
+        request.setValue(new BigDecimal(value));
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package com.tassi.payments.controller;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Datasource-proxy listener recording the statements executed and the rows fetched on the current
+ * thread while a recording is open. Per thread, so the outbox relay, schedulers and other
+ * background work running meanwhile are not counted against the request.
+ */
+final class SqlRecorder implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    static Recording start() {
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    // one entry per round trip; a JDBC batch is one entry
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.statements.add(queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; ")));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        Recording recording = CURRENT.get();
+        if (recording != null && executionContext.getTarget() instanceof ResultSet
+                && executionContext.getMethod().getName().equals("next") && Boolean.TRUE.equals(executionContext.getResult())) {
+            recording.rows++;
+        }
+    }
+
+    static final class Recording {
+        private final List<String> statements = new ArrayList<>();
+        private int rows;
+
+        List<String> statements() {
+            return statements;
+        }
+
+        int rows() {
+            return rows;
+        }
+
+        @Override
+        public String toString() {
+            return statements.size() + " statements, " + rows + " rows:\n  " + String.join("\n  ", statements);
+        }
+    }
+}
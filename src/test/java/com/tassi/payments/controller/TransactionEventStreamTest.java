@@ -0,0 +1,167 @@
+package com.tassi.payments.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.OutboxCursorRepository;
+import com.tassi.payments.repository.OutboxEventRepository;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountService;
+import com.tassi.payments.service.OutboxRelay;
+
+// not @Transactional: events are published from committed outbox rows
+@SpringBootTest
+@AutoConfigureMockMvc
+class TransactionEventStreamTest {
+
+    // complete events only: an event is written to the response in several parts
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\d+)\nevent:transaction\ndata:[^\n]*\n\n");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OutboxCursorRepository outboxCursorRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Stream Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1988, 8, 8));
+        Long personId = personRepository.save(person).getIdPerson();
+        accountId = accountService.createAccount(personId, BigDecimal.ZERO, new BigDecimal("500.00"), 1).getIdAccount();
+    }
+
+    @Test
+    void testEvents_ReplayThenLiveTail() throws Exception {
+        // Arrange
+        accountService.deposit(accountId, new BigDecimal("10.00"));
+        accountService.deposit(accountId, new BigDecimal("20.00"));
+        outboxRelay.relay();
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/api/v1/accounts/{id}/events", accountId).param("after", "0"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        List<Long> replayed = awaitOffsets(result, 2);
+
+        accountService.withdraw(accountId, new BigDecimal("5.00"));
+        outboxRelay.relay();
+        List<Long> all = awaitOffsets(result, 3);
+
+        // Assert
+        assertEquals(2, replayed.size());
+        assertEquals(3, all.size());
+        assertTrue(replayed.get(0) < replayed.get(1));
+        assertEquals(replayed, all.subList(0, 2));
+        assertTrue(all.get(2) > replayed.get(1));
+        assertTrue(result.getResponse().getContentAsString().contains("\"amount\":5.00"));
+    }
+
+    @Test
+    void testEvents_ResumeFromLastEventId() throws Exception {
+        // Arrange
+        accountService.deposit(accountId, new BigDecimal("10.00"));
+        outboxRelay.relay();
+        MvcResult first = mockMvc.perform(get("/api/v1/accounts/{id}/events", accountId).param("after", "0")).andReturn();
+        Long seen = awaitOffsets(first, 1).get(0);
+        accountService.deposit(accountId, new BigDecimal("20.00"));
+        outboxRelay.relay();
+
+        // Act
+        MvcResult resumed = mockMvc.perform(get("/api/v1/accounts/{id}/events", accountId).header("Last-Event-ID", seen))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        List<Long> offsets = awaitOffsets(resumed, 1);
+
+        // Assert
+        assertEquals(1, offsets.size());
+        assertTrue(offsets.get(0) > seen);
+        assertTrue(resumed.getResponse().getContentAsString().contains("\"amount\":20.00"));
+    }
+
+    // another instance's relay claims the batch: this one's sinks never see it
+    @Test
+    void testEvents_LiveTailIncludesBatchesRelayedElsewhere() throws Exception {
+        // Arrange
+        OutboxRelay otherInstance = new OutboxRelay(outboxEventRepository, outboxCursorRepository, List.of(),
+            transactionTemplate, jdbcTemplate, 500);
+        MvcResult result = mockMvc.perform(get("/api/v1/accounts/{id}/events", accountId))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        // Act
+        accountService.deposit(accountId, new BigDecimal("10.00"));
+        otherInstance.relay();
+        accountService.deposit(accountId, new BigDecimal("20.00"));
+        outboxRelay.relay();
+        List<Long> offsets = awaitOffsets(result, 2);
+
+        // Assert
+        otherInstance.shutdown();
+        assertEquals(2, offsets.size());
+        assertTrue(offsets.get(0) < offsets.get(1));
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.indexOf("\"amount\":10.00") < body.indexOf("\"amount\":20.00"));
+    }
+
+    // sinks run on the relay's own thread after commit, so live events arrive asynchronously
+    private static List<Long> awaitOffsets(MvcResult result, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        List<Long> offsets = offsets(result);
+        while (offsets.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            offsets = offsets(result);
+        }
+        return offsets;
+    }
+
+    private static List<Long> offsets(MvcResult result) throws Exception {
+        List<Long> offsets = new ArrayList<>();
+        Matcher matcher = EVENT_ID.matcher(result.getResponse().getContentAsString());
+        while (matcher.find()) {
+            offsets.add(Long.valueOf(matcher.group(1)));
+        }
+        return offsets;
+    }
+}
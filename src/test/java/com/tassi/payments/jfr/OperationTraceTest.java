@@ -0,0 +1,94 @@
+package com.tassi.payments.jfr;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class OperationTraceTest {
+
+    @Test
+    void testPhases_RecordedInOrderWithOutcome() throws Exception {
+        // Act
+        List<RecordedEvent> events = record(() -> {
+            OperationTrace trace = OperationTrace.begin("withdraw", 7L);
+            try {
+                trace.phase("lock");
+                trace.phase("validate");
+                throw new IllegalStateException("Insufficient balance for withdrawal.");
+            } catch (RuntimeException e) {
+                trace.failure(e);
+            }
+        });
+
+        // Assert
+        List<String> phases = events.stream()
+            .filter(e -> e.getEventType().getName().equals(AccountPhaseEvent.NAME))
+            .map(e -> e.getString("phase") + ":" + e.getString("outcome"))
+            .toList();
+        assertEquals(List.of("lock:OK", "validate:IllegalStateException"), phases);
+
+        RecordedEvent operation = single(events, AccountOperationEvent.NAME);
+        assertEquals("withdraw", operation.getString("operation"));
+        assertEquals(7L, operation.getLong("accountId"));
+        assertEquals("IllegalStateException", operation.getString("outcome"));
+    }
+
+    @Test
+    void testSuccess_CommitPhaseEndsWithTransaction() throws Exception {
+        // Act
+        List<RecordedEvent> events = record(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                OperationTrace trace = OperationTrace.begin("deposit", 7L);
+                trace.phase("insert");
+                trace.success();
+
+                List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+                synchronizations.forEach(TransactionSynchronization::beforeCompletion);
+                synchronizations.forEach(TransactionSynchronization::afterCommit);
+                synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        // Assert
+        List<String> phases = events.stream()
+            .filter(e -> e.getEventType().getName().equals(AccountPhaseEvent.NAME))
+            .map(e -> e.getString("phase"))
+            .toList();
+        assertEquals(List.of("insert", "commit"), phases);
+        assertEquals("COMMITTED", single(events, AccountOperationEvent.NAME).getString("outcome"));
+    }
+
+    private static List<RecordedEvent> record(Runnable body) throws Exception {
+        Path file = Files.createTempFile("trace", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AccountOperationEvent.class);
+            recording.enable(AccountPhaseEvent.class);
+            recording.start();
+            body.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> matching = events.stream().filter(e -> e.getEventType().getName().equals(name)).toList();
+        assertEquals(1, matching.size());
+        return matching.get(0);
+    }
+}
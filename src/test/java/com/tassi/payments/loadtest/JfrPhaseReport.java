@@ -0,0 +1,86 @@
+package com.tassi.payments.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+import com.tassi.payments.jfr.AccountOperationEvent;
+import com.tassi.payments.jfr.AccountPhaseEvent;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Summarizes a flight recording into per-operation and per-phase latency percentiles.
+ *
+ *   ./mvnw -Ploadtest test -Dloadtest.mainClass=com.tassi.payments.loadtest.JfrPhaseReport -Djfr.file=payments.jfr
+ *
+ * -Djfr.accountId restricts the report to one account; -Djfr.outcome to one outcome (e.g. COMMITTED,
+ * ROLLED_BACK, IllegalStateException). Recordings come from the Docker image (see readme) or from
+ * jcmd <pid> JFR.dump on any instance started with -XX:StartFlightRecording.
+ */
+public final class JfrPhaseReport {
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(5);
+
+    private JfrPhaseReport() {}
+
+    public static void main(String[] args) throws IOException {
+        String file = System.getProperty("jfr.file");
+        if (file == null) {
+            throw new IllegalArgumentException("Set -Djfr.file to the recording to analyze");
+        }
+        Long accountId = Long.getLong("jfr.accountId");
+        String outcome = System.getProperty("jfr.outcome");
+
+        Map<String, Histogram> operations = new TreeMap<>();
+        Map<String, Histogram> phases = new TreeMap<>();
+        Map<String, Long> outcomes = new TreeMap<>();
+
+        try (RecordingFile recording = new RecordingFile(Path.of(file))) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String name = event.getEventType().getName();
+                boolean operation = name.equals(AccountOperationEvent.NAME);
+                if (!operation && !name.equals(AccountPhaseEvent.NAME)) {
+                    continue;
+                }
+                if (accountId != null && event.getLong("accountId") != accountId) {
+                    continue;
+                }
+                if (outcome != null && !outcome.equals(event.getString("outcome"))) {
+                    continue;
+                }
+
+                long micros = Math.min(HIGHEST_TRACKABLE, Math.max(0, event.getDuration().toNanos() / 1000));
+                if (operation) {
+                    String op = event.getString("operation");
+                    operations.computeIfAbsent(op, k -> new Histogram(HIGHEST_TRACKABLE, 3)).recordValue(micros);
+                    outcomes.merge(op + " " + event.getString("outcome"), 1L, Long::sum);
+                } else {
+                    String key = event.getString("operation") + " / " + event.getString("phase");
+                    phases.computeIfAbsent(key, k -> new Histogram(HIGHEST_TRACKABLE, 3)).recordValue(micros);
+                }
+            }
+        }
+
+        System.out.printf("%-32s %9s | %s%n", "operation", "count", "us (p50 / p90 / p99 / p99.9 / max)");
+        operations.forEach((op, histogram) -> print(op, histogram));
+        System.out.println();
+        System.out.printf("%-32s %9s | %s%n", "operation / phase", "count", "us (p50 / p90 / p99 / p99.9 / max)");
+        phases.forEach((phase, histogram) -> print(phase, histogram));
+        System.out.println();
+        System.out.printf("%-32s %9s%n", "operation outcome", "count");
+        outcomes.forEach((key, count) -> System.out.printf("%-32s %9d%n", key, count));
+    }
+
+    private static void print(String key, Histogram histogram) {
+        System.out.printf("%-32s %9d | %d / %d / %d / %d / %d%n", key, histogram.getTotalCount(),
+            histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+            histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9), histogram.getMaxValue());
+    }
+}
@@ -0,0 +1,96 @@
+package com.tassi.payments.loadtest;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Per-operation latency histograms.
+ *
+ * response time is measured from the request's intended start, so a stalled server is charged
+ * for every request that should have been sent while it stalled (coordinated omission correction).
+ * service time is measured from the actual send and is reported alongside for comparison.
+ */
+final class LatencyStats {
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toMicros(5);
+
+    private final Map<Operation, Recorder> responseTime = new EnumMap<>(Operation.class);
+    private final Map<Operation, Recorder> serviceTime = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> rejected = new EnumMap<>(Operation.class);
+
+    LatencyStats() {
+        for (Operation op : Operation.values()) {
+            responseTime.put(op, new Recorder(HIGHEST_TRACKABLE, 3));
+            serviceTime.put(op, new Recorder(HIGHEST_TRACKABLE, 3));
+            errors.put(op, new LongAdder());
+            rejected.put(op, new LongAdder());
+        }
+    }
+
+    void record(Operation op, long intendedStartNanos, long actualStartNanos, long endNanos, int status) {
+        responseTime.get(op).recordValue(clamp((endNanos - intendedStartNanos) / 1000));
+        serviceTime.get(op).recordValue(clamp((endNanos - actualStartNanos) / 1000));
+        if (status == 429) {
+            rejected.get(op).increment();
+        } else if (status >= 400 || status < 0) {
+            errors.get(op).increment();
+        }
+    }
+
+    // drops everything recorded so far (used after warm-up)
+    void reset() {
+        responseTime.values().forEach(Recorder::reset);
+        serviceTime.values().forEach(Recorder::reset);
+        errors.values().forEach(LongAdder::reset);
+        rejected.values().forEach(LongAdder::reset);
+    }
+
+    void report(PrintStream out, double elapsedSeconds, String histogramDir) throws IOException {
+        Histogram allResponse = new Histogram(HIGHEST_TRACKABLE, 3);
+        out.printf("%-10s %9s %9s %7s %7s | %-48s | %-48s%n", "op", "count", "req/s", "errors", "429",
+            "response time us (p50 / p90 / p99 / p99.9 / max)", "service time us (p50 / p90 / p99 / p99.9 / max)");
+
+        for (Operation op : Operation.values()) {
+            Histogram response = responseTime.get(op).getIntervalHistogram();
+            Histogram service = serviceTime.get(op).getIntervalHistogram();
+            allResponse.add(response);
+            out.printf("%-10s %9d %9.1f %7d %7d | %-48s | %-48s%n", op, response.getTotalCount(),
+                response.getTotalCount() / elapsedSeconds, errors.get(op).sum(), rejected.get(op).sum(),
+                percentiles(response), percentiles(service));
+
+            if (histogramDir != null) {
+                Path dir = Files.createDirectories(Path.of(histogramDir));
+                try (PrintStream file = new PrintStream(new FileOutputStream(dir.resolve(op.name().toLowerCase() + ".hgrm").toFile()))) {
+                    response.outputPercentileDistribution(file, 1.0);
+                }
+            }
+        }
+
+        out.printf("%-10s %9d %9.1f %7s %7s | %-48s%n", "TOTAL", allResponse.getTotalCount(),
+            allResponse.getTotalCount() / elapsedSeconds, "", "", percentiles(allResponse));
+    }
+
+    private static String percentiles(Histogram h) {
+        if (h.getTotalCount() == 0) {
+            return "-";
+        }
+        return String.format("%d / %d / %d / %d / %d",
+            h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99),
+            h.getValueAtPercentile(99.9), h.getMaxValue());
+    }
+
+    private static long clamp(long micros) {
+        return Math.max(0, Math.min(micros, HIGHEST_TRACKABLE));
+    }
+}
@@ -0,0 +1,145 @@
+package com.tassi.payments.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the payments traffic mix against a running instance and prints latency percentiles.
+ *
+ * Start Postgres and the app first, e.g.
+ *   docker compose up -d db
+ *   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/payments_db ./mvnw spring-boot:run
+ * then
+ *   ./mvnw -Ploadtest test -Dloadtest.mode=open -Dloadtest.rate=1000 -Dloadtest.duration=PT2M
+ */
+public final class LoadGenerator {
+
+    private final LoadTestConfig config;
+    private final PaymentsClient client;
+    private final LatencyStats stats = new LatencyStats();
+
+    private long[] accountIds;
+    private ZipfSampler hotAccounts;
+
+    private LoadGenerator(LoadTestConfig config) {
+        this.config = config;
+        this.client = new PaymentsClient(config.baseUrl());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        System.out.printf("Load test: %s loop, %.0f req/s, concurrency %d, %d accounts (zipf s=%.2f), warm-up %s, measure %s against %s%n",
+            config.mode(), config.rate(), config.concurrency(), config.accounts(), config.zipfExponent(),
+            config.warmup(), config.duration(), config.baseUrl());
+
+        LoadGenerator generator = new LoadGenerator(config);
+        generator.setUp();
+        generator.run();
+    }
+
+    private void setUp() throws Exception {
+        long personId = client.createPerson(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        accountIds = new long[config.accounts()];
+        try (ExecutorService setup = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<Long>> created = new ArrayList<>();
+            for (int i = 0; i < accountIds.length; i++) {
+                created.add(setup.submit(() -> client.createAccount(personId)));
+            }
+            for (int i = 0; i < accountIds.length; i++) {
+                accountIds[i] = created.get(i).get();
+            }
+        }
+        hotAccounts = new ZipfSampler(accountIds.length, config.zipfExponent());
+        System.out.printf("Created %d accounts for person %d%n", accountIds.length, personId);
+    }
+
+    private void run() throws Exception {
+        long warmupNanos = config.warmup().toNanos();
+        long totalNanos = warmupNanos + config.duration().toNanos();
+        long start = System.nanoTime();
+
+        Thread resetter = Thread.ofVirtual().start(() -> {
+            LockSupport.parkNanos(warmupNanos);
+            stats.reset();
+            System.out.println("Warm-up done, measuring");
+        });
+
+        if (config.openLoop()) {
+            runOpenLoop(start, totalNanos);
+        } else {
+            runClosedLoop(start, totalNanos);
+        }
+        resetter.join();
+
+        double measuredSeconds = (System.nanoTime() - start - warmupNanos) / 1e9;
+        stats.report(System.out, measuredSeconds, config.histogramDir());
+    }
+
+    // one request every 1/rate seconds; a slow server does not slow down the schedule
+    private void runOpenLoop(long start, long totalNanos) throws InterruptedException {
+        long intervalNanos = (long) (1e9 / config.rate());
+        SplittableRandom random = new SplittableRandom(config.seed());
+
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended - start >= totalNanos) {
+                    break;
+                }
+                sleepUntil(intended);
+
+                Operation op = Operation.pick(random);
+                long accountId = pickAccount(op, random);
+                requests.execute(() -> issue(op, accountId, intended));
+            }
+        }
+    }
+
+    // each worker owns a schedule of rate/concurrency; late responses shift the start, not the schedule
+    private void runClosedLoop(long start, long totalNanos) throws InterruptedException {
+        long intervalNanos = (long) (1e9 * config.concurrency() / config.rate());
+
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < config.concurrency(); w++) {
+                SplittableRandom random = new SplittableRandom(config.seed() + w);
+                long offset = intervalNanos * w / config.concurrency();
+                workers.execute(() -> {
+                    for (long i = 0; ; i++) {
+                        long intended = start + offset + i * intervalNanos;
+                        if (intended - start >= totalNanos) {
+                            return;
+                        }
+                        sleepUntil(intended);
+                        Operation op = Operation.pick(random);
+                        issue(op, pickAccount(op, random), intended);
+                    }
+                });
+            }
+        }
+    }
+
+    private void issue(Operation op, long accountId, long intendedStart) {
+        long actualStart = System.nanoTime();
+        int status = client.execute(op, accountId);
+        stats.record(op, intendedStart, actualStart, System.nanoTime(), status);
+    }
+
+    // money movement concentrates on a few hot accounts, reads are spread evenly
+    private long pickAccount(Operation op, SplittableRandom random) {
+        int index = op.movesMoney() ? hotAccounts.next(random) : random.nextInt(accountIds.length);
+        return accountIds[index];
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(10)));
+        }
+    }
+}
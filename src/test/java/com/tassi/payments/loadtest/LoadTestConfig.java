@@ -0,0 +1,40 @@
+package com.tassi.payments.loadtest;
+
+import java.time.Duration;
+
+/**
+ * Load generator settings, read from -Dloadtest.* system properties.
+ *
+ * open-loop: requests start on a fixed schedule (rate per second) regardless of how fast
+ * the server answers. closed-loop: a fixed number of workers, each paced at rate/concurrency.
+ */
+record LoadTestConfig(
+        String baseUrl,
+        String mode,
+        double rate,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        int accounts,
+        double zipfExponent,
+        long seed,
+        String histogramDir) {
+
+    static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+            System.getProperty("loadtest.baseUrl", "http://localhost:8080"),
+            System.getProperty("loadtest.mode", "open"),
+            Double.parseDouble(System.getProperty("loadtest.rate", "500")),
+            Integer.parseInt(System.getProperty("loadtest.concurrency", "64")),
+            Duration.parse(System.getProperty("loadtest.warmup", "PT10S")),
+            Duration.parse(System.getProperty("loadtest.duration", "PT60S")),
+            Integer.parseInt(System.getProperty("loadtest.accounts", "1000")),
+            Double.parseDouble(System.getProperty("loadtest.zipfExponent", "1.1")),
+            Long.parseLong(System.getProperty("loadtest.seed", "42")),
+            System.getProperty("loadtest.histogramDir"));
+    }
+
+    boolean openLoop() {
+        return "open".equalsIgnoreCase(mode);
+    }
+}
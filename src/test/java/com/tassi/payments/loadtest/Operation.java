@@ -0,0 +1,29 @@
+package com.tassi.payments.loadtest;
+
+import java.util.random.RandomGenerator;
+
+// production traffic mix: 70% balance, 20% deposit/withdraw, 10% statement
+enum Operation {
+    BALANCE,
+    DEPOSIT,
+    WITHDRAW,
+    STATEMENT;
+
+    static Operation pick(RandomGenerator random) {
+        int roll = random.nextInt(100);
+        if (roll < 70) {
+            return BALANCE;
+        }
+        if (roll < 80) {
+            return DEPOSIT;
+        }
+        if (roll < 90) {
+            return WITHDRAW;
+        }
+        return STATEMENT;
+    }
+
+    boolean movesMoney() {
+        return this == DEPOSIT || this == WITHDRAW;
+    }
+}
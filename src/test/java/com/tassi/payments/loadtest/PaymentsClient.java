@@ -0,0 +1,87 @@
+package com.tassi.payments.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// thin blocking HTTP client for the accounts API; callers run it on virtual threads
+final class PaymentsClient {
+
+    private static final Pattern ID = Pattern.compile("\"(idPerson|idAccount)\"\\s*:\\s*(\\d+)");
+
+    private final String baseUrl;
+    private final HttpClient http;
+
+    PaymentsClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    long createPerson(String cpf) throws IOException, InterruptedException {
+        String body = "{\"name\":\"Load Test\",\"cpf\":\"" + cpf + "\",\"dateOfBirth\":\"1990-01-01\"}";
+        return extractId(send(post("/api/v1/persons", body)));
+    }
+
+    long createAccount(long personId) throws IOException, InterruptedException {
+        String body = "{\"personId\":" + personId + ",\"initialDeposit\":1000000.00,"
+            + "\"dailyWithdrawalLimit\":1000000.00,\"accountType\":1}";
+        return extractId(send(post("/api/v1/accounts", body)));
+    }
+
+    // returns the HTTP status, or -1 on a transport failure
+    int execute(Operation op, long accountId) {
+        HttpRequest request = switch (op) {
+            case BALANCE -> get("/api/v1/accounts/" + accountId + "/balance");
+            case STATEMENT -> get("/api/v1/accounts/" + accountId + "/statement");
+            case DEPOSIT -> post("/api/v1/accounts/" + accountId + "/deposit", "{\"value\":1.00}");
+            case WITHDRAW -> post("/api/v1/accounts/" + accountId + "/withdraw", "{\"value\":1.00}");
+        };
+        try {
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private String send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() >= 300) {
+            throw new IOException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .GET()
+            .build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private static long extractId(String json) throws IOException {
+        Matcher matcher = ID.matcher(json);
+        if (!matcher.find()) {
+            throw new IOException("No id in response: " + json);
+        }
+        return Long.parseLong(matcher.group(2));
+    }
+}
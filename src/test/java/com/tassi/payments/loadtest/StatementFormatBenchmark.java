@@ -0,0 +1,96 @@
+package com.tassi.payments.loadtest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.tassi.payments.dto.ColumnarStatementResponse;
+import com.tassi.payments.dto.StatementResponse;
+import com.tassi.payments.dto.TransactionDto;
+
+/**
+ * Offline comparison of statement encodings: bytes on the wire (raw and gzip) and serialization time.
+ *
+ *   ./mvnw -Ploadtest test -Dloadtest.mainClass=com.tassi.payments.loadtest.StatementFormatBenchmark -Dbench.rows=5000
+ */
+public final class StatementFormatBenchmark {
+
+    private StatementFormatBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int rows = Integer.getInteger("bench.rows", 5000);
+        int iterations = Integer.getInteger("bench.iterations", 2000);
+
+        StatementResponse statement = statement(rows);
+        ColumnarStatementResponse columnar = ColumnarStatementResponse.from(statement);
+
+        ObjectMapper json = configure(new ObjectMapper());
+        ObjectMapper jsonBlackbird = configure(new ObjectMapper()).registerModule(new BlackbirdModule());
+        ObjectMapper cbor = configure(new CBORMapper()).registerModule(new BlackbirdModule());
+
+        System.out.printf("Statement with %d rows, %d iterations per format%n", rows, iterations);
+        System.out.printf("%-24s %10s %10s %12s%n", "format", "bytes", "gzip", "us/op");
+        run("json", json, statement, iterations);
+        run("json+blackbird", jsonBlackbird, statement, iterations);
+        run("columnar+blackbird", jsonBlackbird, columnar, iterations);
+        run("cbor+blackbird", cbor, statement, iterations);
+        run("cbor columnar", cbor, columnar, iterations);
+    }
+
+    private static void run(String name, ObjectMapper mapper, Object value, int iterations) throws IOException {
+        byte[] encoded = mapper.writeValueAsBytes(value);
+
+        // warm-up so the JIT and Blackbird's generated accessors are in place before timing
+        for (int i = 0; i < iterations; i++) {
+            mapper.writeValueAsBytes(value);
+        }
+        long start = System.nanoTime();
+        long sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += mapper.writeValueAsBytes(value).length;
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / iterations;
+
+        System.out.printf("%-24s %10d %10d %12.1f%n", name, encoded.length, gzip(encoded), micros);
+        if (sink == 0) {
+            throw new IllegalStateException("nothing serialized");
+        }
+    }
+
+    private static <T extends ObjectMapper> T configure(T mapper) {
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    private static int gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        }
+        return out.size();
+    }
+
+    private static StatementResponse statement(int rows) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime time = LocalDateTime.of(2024, 1, 1, 9, 0);
+        List<TransactionDto> transactions = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            boolean deposit = random.nextInt(3) > 0;
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(1, 500_000), 2);
+            time = time.plusSeconds(random.nextInt(1, 7200));
+            transactions.add(new TransactionDto((long) i + 1, deposit ? "Depósito" : "Saque", amount, time));
+        }
+        return new StatementResponse(1L, new BigDecimal("12345.67"), transactions);
+    }
+}
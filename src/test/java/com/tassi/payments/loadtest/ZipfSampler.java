@@ -0,0 +1,27 @@
+package com.tassi.payments.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+// rank 0 is the hottest item; sampling is a binary search over a precomputed CDF
+final class ZipfSampler {
+
+    private final double[] cdf;
+
+    ZipfSampler(int items, double exponent) {
+        cdf = new double[items];
+        double sum = 0;
+        for (int rank = 0; rank < items; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < items; rank++) {
+            cdf[rank] /= sum;
+        }
+    }
+
+    int next(RandomGenerator random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+    }
+}
@@ -0,0 +1,257 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.BalanceSlotRepository;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountModel.Op;
+import com.tassi.payments.service.AccountModel.Outcome;
+import com.tassi.payments.service.AccountModel.Type;
+import com.tassi.payments.service.LinearizabilityChecker.Operation;
+
+/**
+ * Randomized concurrent histories of deposit/withdraw/block/unblock/balance against a few
+ * accounts on the embedded database, checked for linearizability per account.
+ *
+ * Scale with -Dstress.rounds / -Dstress.opsPerThread; replay a failure with -Dstress.seed.
+ */
+@SpringBootTest(properties = "payments.slots.auto-enabled=false")
+class AccountLinearizabilityTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = Integer.getInteger("stress.rounds", 3);
+    private static final int OPS_PER_THREAD = Integer.getInteger("stress.opsPerThread", 40);
+    private static final long INITIAL_BALANCE = 10_000;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private Long personId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Stress Holder");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1975, 3, 3));
+        personId = personRepository.save(person).getIdPerson();
+    }
+
+    @Test
+    void testRegularAccounts_HistoriesAreLinearizable() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            runRound(new int[] {0, 0, 0});
+        }
+    }
+
+    @Test
+    void testSlottedAccounts_HistoriesAreLinearizable() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            runRound(new int[] {4, 4, 0});
+        }
+    }
+
+    @Test
+    void testChecker_RejectsLostUpdate() {
+        // Arrange: two deposits of 5 that did not overlap, then a read that saw only one of them
+        List<Operation<Op>> history = List.of(
+            new Operation<>(0, 10, new Op(Type.DEPOSIT, 5, Outcome.OK)),
+            new Operation<>(20, 30, new Op(Type.DEPOSIT, 5, Outcome.OK)),
+            new Operation<>(40, 50, new Op(Type.BALANCE, 5, Outcome.OK)));
+
+        // Act & Assert
+        assertFalse(LinearizabilityChecker.isLinearizable(new AccountModel(0), history));
+    }
+
+    @Test
+    void testChecker_AcceptsOverlappingReorder() {
+        // Arrange: the withdrawal only succeeds if the overlapping deposit is placed first
+        List<Operation<Op>> history = List.of(
+            new Operation<>(0, 30, new Op(Type.WITHDRAW, 5, Outcome.OK)),
+            new Operation<>(10, 20, new Op(Type.DEPOSIT, 5, Outcome.OK)),
+            new Operation<>(40, 50, new Op(Type.BALANCE, 0, Outcome.OK)));
+
+        // Act & Assert
+        assertTrue(LinearizabilityChecker.isLinearizable(new AccountModel(0), history));
+    }
+
+    @Test
+    void testChecker_PendingOperationMayOrMayNotTakeEffect() {
+        // Arrange: a deposit that never responded, read once before and once after it took effect
+        List<Operation<Op>> tookEffect = List.of(
+            new Operation<>(0, LinearizabilityChecker.PENDING, new Op(Type.DEPOSIT, 5, Outcome.UNKNOWN)),
+            new Operation<>(10, 20, new Op(Type.BALANCE, 0, Outcome.OK)),
+            new Operation<>(30, 40, new Op(Type.BALANCE, 5, Outcome.OK)));
+        List<Operation<Op>> never = List.of(
+            new Operation<>(0, LinearizabilityChecker.PENDING, new Op(Type.DEPOSIT, 5, Outcome.UNKNOWN)),
+            new Operation<>(10, 20, new Op(Type.BALANCE, 0, Outcome.OK)));
+        List<Operation<Op>> undone = List.of(
+            new Operation<>(0, LinearizabilityChecker.PENDING, new Op(Type.DEPOSIT, 5, Outcome.UNKNOWN)),
+            new Operation<>(10, 20, new Op(Type.BALANCE, 5, Outcome.OK)),
+            new Operation<>(30, 40, new Op(Type.BALANCE, 0, Outcome.OK)));
+
+        // Act & Assert
+        assertTrue(LinearizabilityChecker.isLinearizable(new AccountModel(0), tookEffect));
+        assertTrue(LinearizabilityChecker.isLinearizable(new AccountModel(0), never));
+        assertFalse(LinearizabilityChecker.isLinearizable(new AccountModel(0), undone));
+    }
+
+    @Test
+    void testChecker_RejectsWithdrawalFromBlockedAccount() {
+        // Arrange
+        List<Operation<Op>> history = List.of(
+            new Operation<>(0, 10, new Op(Type.BLOCK, 0, Outcome.OK)),
+            new Operation<>(20, 30, new Op(Type.WITHDRAW, 5, Outcome.OK)));
+
+        // Act & Assert
+        assertFalse(LinearizabilityChecker.isLinearizable(new AccountModel(100), history));
+    }
+
+    private void runRound(int[] slotCounts) throws Exception {
+        long seed = Long.getLong("stress.seed", System.nanoTime());
+        List<Long> accountIds = new ArrayList<>();
+        for (int slots : slotCounts) {
+            Long accountId = accountService.createAccount(personId, cents(INITIAL_BALANCE), new BigDecimal("1000000.00"), 1).getIdAccount();
+            if (slots > 0) {
+                balanceSlotService.promote(accountId, slots);
+            }
+            accountIds.add(accountId);
+        }
+
+        // Act
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Recorded>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(seed + t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Recorded> recorded = new ArrayList<>(OPS_PER_THREAD);
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        recorded.add(invoke(accountIds.get(random.nextInt(accountIds.size())), random));
+                    }
+                    return recorded;
+                }));
+            }
+            List<Recorded> history = new ArrayList<>();
+            for (Future<List<Recorded>> future : futures) {
+                history.addAll(future.get());
+            }
+
+            // the final balance is part of the history, so it must match some linearization
+            for (Long accountId : accountIds) {
+                long invokedAt = System.nanoTime();
+                long balance = toCents(accountService.getBalance(accountId));
+                history.add(new Recorded(accountId, new Operation<>(invokedAt, System.nanoTime(), new Op(Type.BALANCE, balance, Outcome.OK))));
+            }
+
+            // Assert
+            Map<Long, List<Operation<Op>>> byAccount = history.stream()
+                .collect(Collectors.groupingBy(Recorded::accountId, HashMap::new,
+                    Collectors.mapping(Recorded::operation, Collectors.toList())));
+            for (Long accountId : accountIds) {
+                List<Operation<Op>> operations = byAccount.get(accountId);
+                assertTrue(LinearizabilityChecker.isLinearizable(new AccountModel(INITIAL_BALANCE), operations),
+                    () -> "history of account " + accountId + " is not linearizable (seed " + seed + "):\n" + describe(operations));
+                assertTrue(accountService.getBalance(accountId).signum() >= 0);
+                assertTrue(balanceSlotRepository.findAll().stream()
+                    .filter(s -> s.getAccountId().equals(accountId))
+                    .allMatch(s -> s.getBalance().signum() >= 0), "negative slot (seed " + seed + ")");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // a failure outside the model (lock timeout, deadlock victim, an error after commit) leaves the
+    // outcome unknown: the operation is recorded as pending, free to have taken effect or not
+    private Recorded invoke(Long accountId, Random random) {
+        int pick = random.nextInt(100);
+        Type type = pick < 35 ? Type.DEPOSIT : pick < 70 ? Type.WITHDRAW : pick < 78 ? Type.BLOCK : pick < 88 ? Type.UNBLOCK : Type.BALANCE;
+        long amount = type == Type.DEPOSIT || type == Type.WITHDRAW ? 100 + random.nextInt(2_000) : 0;
+
+        long invokedAt = System.nanoTime();
+        Outcome outcome = Outcome.OK;
+        try {
+            switch (type) {
+                case DEPOSIT -> accountService.deposit(accountId, cents(amount));
+                case WITHDRAW -> accountService.withdraw(accountId, cents(amount));
+                case BLOCK -> accountService.blockAccount(accountId);
+                case UNBLOCK -> accountService.unblockAccount(accountId);
+                case BALANCE -> amount = toCents(accountService.getBalance(accountId));
+            }
+        } catch (IllegalStateException e) {
+            outcome = outcome(e.getMessage());
+        } catch (RuntimeException e) {
+            return new Recorded(accountId, new Operation<>(invokedAt, LinearizabilityChecker.PENDING, new Op(type, amount, Outcome.UNKNOWN)));
+        }
+        return new Recorded(accountId, new Operation<>(invokedAt, System.nanoTime(), new Op(type, amount, outcome)));
+    }
+
+    private static String describe(List<Operation<Op>> operations) {
+        long origin = operations.stream().mapToLong(Operation::invokedAt).min().orElse(0);
+        return operations.stream()
+            .sorted(Comparator.comparingLong(Operation::invokedAt))
+            .map(o -> String.format("  [%8d, %8s] us %s %d -> %s", (o.invokedAt() - origin) / 1000,
+                o.respondedAt() == LinearizabilityChecker.PENDING ? "pending" : (o.respondedAt() - origin) / 1000,
+                o.operation().type(), o.operation().amount(), o.operation().outcome()))
+            .collect(Collectors.joining("\n"));
+    }
+
+    private static Outcome outcome(String message) {
+        if (message.contains("already blocked")) {
+            return Outcome.ALREADY_BLOCKED;
+        }
+        if (message.contains("already active")) {
+            return Outcome.ALREADY_ACTIVE;
+        }
+        if (message.contains("blocked")) {
+            return Outcome.BLOCKED;
+        }
+        if (message.contains("Insufficient balance")) {
+            return Outcome.INSUFFICIENT;
+        }
+        throw new AssertionError("unexpected failure: " + message);
+    }
+
+    private static BigDecimal cents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private static long toCents(BigDecimal value) {
+        return value.movePointRight(2).longValueExact();
+    }
+
+    private record Recorded(Long accountId, Operation<Op> operation) {
+    }
+}
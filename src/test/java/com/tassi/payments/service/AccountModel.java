@@ -0,0 +1,56 @@
+package com.tassi.payments.service;
+
+/**
+ * Sequential specification of one account for the linearizability checker: the result each
+ * operation must have observed given the balance (in cents) and the active flag before it.
+ */
+final class AccountModel implements LinearizabilityChecker.Model<AccountModel.State, AccountModel.Op> {
+
+    enum Type { DEPOSIT, WITHDRAW, BLOCK, UNBLOCK, BALANCE }
+
+    // UNKNOWN for pending operations: whatever the model says at the point they are placed
+    enum Outcome { OK, BLOCKED, INSUFFICIENT, ALREADY_BLOCKED, ALREADY_ACTIVE, UNKNOWN }
+
+    record State(long balance, boolean active) {
+    }
+
+    // amount for deposits/withdrawals, observed balance for reads (cents)
+    record Op(Type type, long amount, Outcome outcome) {
+    }
+
+    private final long initialBalance;
+
+    AccountModel(long initialBalance) {
+        this.initialBalance = initialBalance;
+    }
+
+    @Override
+    public State initial() {
+        return new State(initialBalance, true);
+    }
+
+    @Override
+    public State step(State state, Op op) {
+        return switch (op.type()) {
+            case DEPOSIT -> !state.active()
+                ? expect(op, Outcome.BLOCKED, state)
+                : expect(op, Outcome.OK, new State(state.balance() + op.amount(), true));
+            case WITHDRAW -> !state.active()
+                ? expect(op, Outcome.BLOCKED, state)
+                : state.balance() < op.amount()
+                    ? expect(op, Outcome.INSUFFICIENT, state)
+                    : expect(op, Outcome.OK, new State(state.balance() - op.amount(), true));
+            case BLOCK -> state.active()
+                ? expect(op, Outcome.OK, new State(state.balance(), false))
+                : expect(op, Outcome.ALREADY_BLOCKED, state);
+            case UNBLOCK -> !state.active()
+                ? expect(op, Outcome.OK, new State(state.balance(), true))
+                : expect(op, Outcome.ALREADY_ACTIVE, state);
+            case BALANCE -> op.outcome() == Outcome.UNKNOWN || op.amount() == state.balance() ? state : null;
+        };
+    }
+
+    private static State expect(Op op, Outcome outcome, State next) {
+        return op.outcome() == outcome || op.outcome() == Outcome.UNKNOWN ? next : null;
+    }
+}
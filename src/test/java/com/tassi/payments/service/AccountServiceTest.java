@@ -2,6 +2,8 @@ package com.tassi.payments.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.math.BigDecimal;
@@ -14,10 +16,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import com.tassi.payments.model.Account;
 import com.tassi.payments.model.Person;
 import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.OutboxEventRepository;
 import com.tassi.payments.repository.PersonRepository;
 import com.tassi.payments.repository.TransactionRepository;
 import com.tassi.payments.service.impl.AccountServiceImpl;
@@ -34,6 +38,24 @@ class AccountServiceTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private AccountSummaryService accountSummaryService;
+
+    @Mock
+    private BalanceSlotService balanceSlotService;
+
+    @Mock
+    private HotAccountMonitor hotAccountMonitor;
+
+    @Mock
+    private VelocityGuard velocityGuard;
+
     @InjectMocks
     private AccountServiceImpl accountService;
 
@@ -55,6 +77,13 @@ class AccountServiceTest {
         testAccount.setDailyWithdrawalLimit(new BigDecimal("500.00"));
         testAccount.setIsActiveFlag(true);
         testAccount.setAccountType(1);
+
+        // regular accounts: the state is the entity itself
+        lenient().when(balanceSlotService.state(any(Account.class))).thenAnswer(invocation -> {
+            Account account = invocation.getArgument(0);
+            return new AccountState(account.getIdAccount(), account.getPerson().getIdPerson(),
+                account.getBalance(), account.heldOrZero(), account.getIsActiveFlag(), account.getVersionTag());
+        });
     }
 
     @Test
@@ -98,16 +127,20 @@ class AccountServiceTest {
     @Test
     void testDeposit_Success() {
         // Arrange
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(0));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
         when(accountRepository.save(any(Account.class))).thenReturn(testAccount);
 
         // Act
         accountService.deposit(1L, new BigDecimal("200.00"));
 
         // Assert
-        verify(accountRepository).findById(1L);
+        verify(accountRepository).findByIdForUpdate(1L);
         verify(accountRepository).save(any(Account.class));
         verify(transactionRepository).save(any());
+        verify(outboxEventRepository).save(any());
+        verify(eventPublisher).publishEvent(any(AccountChangedEvent.class));
+        verify(accountSummaryService).record(eq(1L), eq(new BigDecimal("200.00")), any());
     }
 
     @Test
@@ -126,7 +159,8 @@ class AccountServiceTest {
     void testDeposit_BlockedAccount() {
         // Arrange
         testAccount.setIsActiveFlag(false);
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(0));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -141,14 +175,15 @@ class AccountServiceTest {
     @Test
     void testWithdraw_Success() {
         // Arrange
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(0));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
         when(accountRepository.save(any(Account.class))).thenReturn(testAccount);
 
         // Act
         accountService.withdraw(1L, new BigDecimal("200.00"));
 
         // Assert
-        verify(accountRepository).findById(1L);
+        verify(accountRepository).findByIdForUpdate(1L);
         verify(accountRepository).save(any(Account.class));
         verify(transactionRepository).save(any());
     }
@@ -156,7 +191,8 @@ class AccountServiceTest {
     @Test
     void testWithdraw_InsufficientBalance() {
         // Arrange
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(0));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -171,7 +207,8 @@ class AccountServiceTest {
     @Test
     void testWithdraw_ExceedsDailyLimit() {
         // Arrange
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(0));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -183,6 +220,25 @@ class AccountServiceTest {
         verify(accountRepository, never()).save(any());
     }
 
+    @Test
+    void testWithdraw_VelocityLimitExceeded() {
+        // Arrange
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(0));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        doThrow(new IllegalStateException("Withdrawal velocity limit exceeded."))
+            .when(velocityGuard).reserve(1L, 1, new BigDecimal("100.00"));
+
+        // Act & Assert
+        IllegalStateException exception = assertThrows(
+            IllegalStateException.class,
+            () -> accountService.withdraw(1L, new BigDecimal("100.00"))
+        );
+
+        assertTrue(exception.getMessage().contains("velocity"));
+        verify(accountRepository, never()).save(any());
+        verify(transactionRepository, never()).save(any());
+    }
+
     @Test
     void testGetBalance_Success() {
         // Arrange
@@ -199,7 +255,7 @@ class AccountServiceTest {
     @Test
     void testBlockAccount_Success() {
         // Arrange
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
         when(accountRepository.save(any(Account.class))).thenReturn(testAccount);
 
         // Act
@@ -207,7 +263,7 @@ class AccountServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(accountRepository).findById(1L);
+        verify(accountRepository).findByIdForUpdate(1L);
         verify(accountRepository).save(any(Account.class));
     }
 
@@ -215,7 +271,7 @@ class AccountServiceTest {
     void testBlockAccount_AlreadyBlocked() {
         // Arrange
         testAccount.setIsActiveFlag(false);
-        when(accountRepository.findById(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
 
         // Act & Assert
         IllegalStateException exception = assertThrows(
@@ -226,4 +282,42 @@ class AccountServiceTest {
         assertTrue(exception.getMessage().contains("already blocked"));
         verify(accountRepository, never()).save(any());
     }
+
+    @Test
+    void testDeposit_SlottedAccount() {
+        // Arrange
+        testAccount.setSlotCount(4);
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(4));
+        when(accountRepository.findByIdForShare(1L)).thenReturn(Optional.of(testAccount));
+        when(balanceSlotService.deposit(eq(1L), anyInt(), eq(new BigDecimal("200.00")), any())).thenReturn(true);
+
+        // Act
+        accountService.deposit(1L, new BigDecimal("200.00"));
+
+        // Assert
+        verify(accountRepository, never()).findByIdForUpdate(any());
+        verify(accountRepository, never()).save(any());
+        verify(transactionRepository).save(any());
+        verify(hotAccountMonitor).recordSlotted(1L);
+        verify(accountSummaryService).record(eq(1L), eq(new BigDecimal("200.00")), any(), anyInt());
+    }
+
+    // demoted between the slot count lookup and the shared lock: the deposit goes to the row, under the exclusive lock
+    @Test
+    void testDeposit_DemotedBeforeLock_UsesRowLock() {
+        // Arrange
+        when(accountRepository.findSlotCount(1L)).thenReturn(Optional.of(4));
+        when(accountRepository.findByIdForShare(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testAccount));
+        when(accountRepository.save(any(Account.class))).thenReturn(testAccount);
+
+        // Act
+        accountService.deposit(1L, new BigDecimal("200.00"));
+
+        // Assert
+        assertEquals(0, new BigDecimal("1200.00").compareTo(testAccount.getBalance()));
+        verify(balanceSlotService, never()).deposit(any(), anyInt(), any(), any());
+        verify(accountRepository, never()).applyDelta(any(), any(), any());
+        verify(accountSummaryService).record(eq(1L), eq(new BigDecimal("200.00")), any());
+    }
 }
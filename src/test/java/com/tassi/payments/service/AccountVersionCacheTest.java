@@ -0,0 +1,64 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.tassi.payments.repository.AccountRepository;
+
+@ExtendWith(MockitoExtension.class)
+class AccountVersionCacheTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private BalanceSlotService balanceSlotService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AccountVersionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AccountVersionCache(accountRepository, balanceSlotService, transactionManager, 100);
+    }
+
+    // listeners of two commits can run in either order; the older version must not win
+    @Test
+    void testOnAccountChanged_KeepsNewerVersion() {
+        // Act
+        cache.onAccountChanged(event("12.3"));
+        cache.onAccountChanged(event("12.2"));
+        cache.onAccountChanged(event("9.7"));
+
+        // Assert
+        assertEquals("12.3", cache.get(1L));
+        verifyNoInteractions(accountRepository);
+    }
+
+    @Test
+    void testOnAccountChanged_ComparesNumerically() {
+        // Act
+        cache.onAccountChanged(event("9.10"));
+        cache.onAccountChanged(event("10.0"));
+        cache.onAccountChanged(event("10.9"));
+        cache.onAccountChanged(event("10.10"));
+
+        // Assert
+        assertEquals("10.10", cache.get(1L));
+    }
+
+    private static AccountChangedEvent event(String version) {
+        return new AccountChangedEvent(1L, 2L, BigDecimal.TEN, true, version);
+    }
+}
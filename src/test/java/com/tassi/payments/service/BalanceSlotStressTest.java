@@ -0,0 +1,160 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.BalanceSlotRepository;
+import com.tassi.payments.repository.PersonRepository;
+
+// concurrent deposits on one account with and without slots
+@SpringBootTest(properties = "payments.slots.auto-enabled=false")
+class BalanceSlotStressTest {
+
+    private static final int THREADS = 8;
+    private static final int DEPOSITS_PER_THREAD = 50;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private BalanceSlotRepository balanceSlotRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountVersionCache accountVersionCache;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    private Long personId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Hot Account");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1980, 5, 5));
+        personId = personRepository.save(person).getIdPerson();
+    }
+
+    @Test
+    void testConcurrentDeposits_ExactBalanceWithAnySlotCount() throws Exception {
+        for (int slots : new int[] {0, 4, 16}) {
+            // Arrange
+            Long accountId = accountService.createAccount(personId, new BigDecimal("100.00"), new BigDecimal("1000.00"), 1).getIdAccount();
+            if (slots > 0) {
+                balanceSlotService.promote(accountId, slots);
+            }
+
+            String before = accountService.getState(accountId).version();
+
+            // Act
+            runConcurrently(() -> accountService.deposit(accountId, new BigDecimal("1.00")));
+
+            // Assert
+            BigDecimal expected = new BigDecimal("100.00").add(BigDecimal.valueOf(THREADS * DEPOSITS_PER_THREAD));
+            AccountState state = accountService.getState(accountId);
+            assertEquals(0, expected.compareTo(state.balance()));
+            assertEquals(THREADS * DEPOSITS_PER_THREAD, accountSummaryService.getSummary(accountId).getTransactionCount());
+            // every slot write moves the version, and the cached tag is not left behind by out-of-order commits
+            if (slots > 0) {
+                assertEquals(versionCount(before) + THREADS * DEPOSITS_PER_THREAD, versionCount(state.version()));
+            }
+            assertEquals(state.version(), accountVersionCache.get(accountId));
+        }
+    }
+
+    @Test
+    void testWithdrawal_ConsolidatesSlotsWhenOneSlotIsShort() {
+        // Arrange
+        Long accountId = accountService.createAccount(personId, new BigDecimal("0.00"), new BigDecimal("1000.00"), 1).getIdAccount();
+        balanceSlotService.promote(accountId, 4);
+        for (int i = 0; i < 8; i++) {
+            accountService.deposit(accountId, new BigDecimal("10.00"));
+        }
+
+        // Act: no single slot can hold 75.00 of the 80.00
+        accountService.withdraw(accountId, new BigDecimal("75.00"));
+
+        // Assert
+        assertEquals(0, new BigDecimal("5.00").compareTo(accountService.getBalance(accountId)));
+        assertEquals(0, BigDecimal.ZERO.compareTo(balanceSlotRepository.sumBalance(accountId)));
+        assertThrows(IllegalStateException.class, () -> accountService.withdraw(accountId, new BigDecimal("5.01")));
+
+        // demotion folds the slots back without changing the total
+        accountService.deposit(accountId, new BigDecimal("1.00"));
+        balanceSlotService.demote(accountId);
+        assertEquals(0, new BigDecimal("6.00").compareTo(accountService.getBalance(accountId)));
+    }
+
+    @Test
+    void testPromote_ManualPromotionIsNotAutoDemoted() {
+        // Arrange
+        Long manual = accountService.createAccount(personId, new BigDecimal("0.00"), new BigDecimal("1000.00"), 1).getIdAccount();
+        Long automatic = accountService.createAccount(personId, new BigDecimal("0.00"), new BigDecimal("1000.00"), 1).getIdAccount();
+        Long pinnedLater = accountService.createAccount(personId, new BigDecimal("0.00"), new BigDecimal("1000.00"), 1).getIdAccount();
+
+        // Act
+        balanceSlotService.promote(manual, 4);
+        balanceSlotService.promote(automatic, 4, false);
+        balanceSlotService.promote(pinnedLater, 4, false);
+        balanceSlotService.promote(pinnedLater, 4);
+
+        // Assert
+        List<Long> demotable = accountRepository.findAutoSlottedIds();
+        assertFalse(demotable.contains(manual));
+        assertTrue(demotable.contains(automatic));
+        assertFalse(demotable.contains(pinnedLater));
+
+        // a manual demotion clears the pin
+        balanceSlotService.demote(manual);
+        balanceSlotService.promote(manual, 4, false);
+        assertTrue(accountRepository.findAutoSlottedIds().contains(manual));
+    }
+
+    // second part of the version tag, which counts state changes and slot writes
+    private static long versionCount(String version) {
+        return Long.parseLong(version.substring(version.indexOf('.') + 1));
+    }
+
+    private static void runConcurrently(Runnable deposit) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < DEPOSITS_PER_THREAD; i++) {
+                        deposit.run();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockedConstruction;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.tassi.payments.dto.BalanceUpdateDto;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.repository.AccountRepository;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceStreamRegistryTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private BalanceSlotService balanceSlotService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Account account = new Account();
+
+    private BalanceStreamRegistry registry;
+    private MockedConstruction<SseEmitter> emitters;
+
+    @BeforeEach
+    void setUp() {
+        account.setIdAccount(1L);
+        lenient().when(accountRepository.findById(1L)).thenReturn(Optional.of(account));
+        registry = new BalanceStreamRegistry(accountRepository, balanceSlotService, transactionManager, 0);
+        emitters = mockConstruction(SseEmitter.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitters.close();
+        registry.shutdown();
+    }
+
+    // a change committed between subscribing and reading the snapshot must not be overwritten by it
+    @Test
+    void testSubscribe_SnapshotOlderThanPendingUpdateIsDropped() throws Exception {
+        // Arrange: the change commits while the snapshot is being read, and the read misses it
+        when(balanceSlotService.state(account)).thenAnswer(inv -> {
+            registry.onAccountChanged(new AccountChangedEvent(1L, 2L, new BigDecimal("200.00"), true, "7.0"));
+            return state("100.00", "6.0");
+        });
+
+        // Act
+        registry.subscribe(1L);
+
+        // Assert
+        assertEquals(List.of("7.0"), sentVersions(1));
+    }
+
+    @Test
+    void testOnAccountChanged_SendsNewerVersionsOnly() throws Exception {
+        // Arrange
+        when(balanceSlotService.state(account)).thenReturn(state("100.00", "6.0"));
+        registry.subscribe(1L);
+        sentVersions(1);
+
+        // Act
+        registry.onAccountChanged(new AccountChangedEvent(1L, 2L, new BigDecimal("90.00"), true, "5.3"));
+        registry.onAccountChanged(new AccountChangedEvent(1L, 2L, new BigDecimal("300.00"), true, "8.0"));
+
+        // Assert
+        assertEquals(List.of("6.0", "8.0"), sentVersions(2));
+    }
+
+    @Test
+    void testOnAccountChanged_UnknownVersionIsReadAfterCommit() throws Exception {
+        // Arrange
+        when(balanceSlotService.state(account)).thenReturn(state("100.00", "6.0"), state("150.00", "6.4"));
+        registry.subscribe(1L);
+        sentVersions(1);
+
+        // Act
+        registry.onAccountChanged(new AccountChangedEvent(1L, 2L, new BigDecimal("120.00"), true, null));
+
+        // Assert
+        assertEquals(List.of("6.0", "6.4"), sentVersions(2));
+        verify(balanceSlotService, times(2)).state(account);
+    }
+
+    @Test
+    void testSubscribe_UnknownAccount() {
+        // Arrange
+        when(accountRepository.findById(9L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> registry.subscribe(9L));
+        assertEquals(0, registry.subscriberCount());
+    }
+
+    // versions of the balance events sent so far, once `count` of them were sent
+    private List<String> sentVersions(int count) throws Exception {
+        SseEmitter emitter = emitters.constructed().get(0);
+        ArgumentCaptor<SseEmitter.SseEventBuilder> events = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(2000).atLeast(count)).send(events.capture());
+        // nothing else is on its way
+        Thread.sleep(100);
+        verify(emitter, times(count)).send(any(SseEmitter.SseEventBuilder.class));
+        return events.getAllValues().stream()
+            .flatMap(event -> event.build().stream())
+            .map(data -> data.getData())
+            .filter(BalanceUpdateDto.class::isInstance)
+            .map(data -> ((BalanceUpdateDto) data).getVersion())
+            .toList();
+    }
+
+    private static AccountState state(String balance, String version) {
+        return new AccountState(1L, 2L, new BigDecimal(balance), BigDecimal.ZERO, true, version);
+    }
+}
@@ -0,0 +1,80 @@
+package com.tassi.payments.service;
+
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+@ExtendWith(MockitoExtension.class)
+class CacheCoherenceListenerTest {
+
+    @Mock
+    private CacheCoherencePublisher publisher;
+
+    @Mock
+    private NodeCache versions;
+
+    @Mock
+    private NodeCache entities;
+
+    private CacheCoherenceListener listener;
+
+    // not started: apply() is what the listening thread calls per notification
+    @BeforeEach
+    void setUp() {
+        when(publisher.nodeId()).thenReturn("self");
+        listener = new CacheCoherenceListener(new DataSourceProperties(), List.of(versions, entities), publisher, "payments_cache", 1000);
+    }
+
+    @Test
+    void testApply_EvictsChangedIdsInEveryCache() {
+        // Act
+        listener.apply(new CacheInvalidation("other", Set.of(1L, 2L), Set.of(7L), false));
+
+        // Assert
+        for (NodeCache cache : List.of(versions, entities)) {
+            verify(cache).evictAccounts(Set.of(1L, 2L));
+            verify(cache).evictPersons(Set.of(7L));
+            verify(cache, never()).evictAll();
+        }
+    }
+
+    @Test
+    void testApply_SkipsEmptyKinds() {
+        // Act
+        listener.apply(new CacheInvalidation("other", Set.of(1L), Set.of(), false));
+
+        // Assert
+        verify(versions).evictAccounts(Set.of(1L));
+        verify(versions, never()).evictPersons(any());
+    }
+
+    @Test
+    void testApply_FlushAll() {
+        // Act
+        listener.apply(CacheInvalidation.flushAll("other"));
+
+        // Assert
+        verify(versions).evictAll();
+        verify(entities).evictAll();
+        verify(versions, never()).evictAccounts(any());
+    }
+
+    // this node's own notifications come back through LISTEN too; its caches are already current
+    @Test
+    void testApply_IgnoresOwnNotifications() {
+        // Act
+        listener.apply(new CacheInvalidation("self", Set.of(1L), Set.of(7L), false));
+        listener.apply(CacheInvalidation.flushAll("self"));
+
+        // Assert
+        verifyNoInteractions(versions, entities);
+    }
+}
@@ -0,0 +1,130 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+
+@ExtendWith(MockitoExtension.class)
+class CacheCoherencePublisherTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    private final List<String> payloads = new ArrayList<>();
+    private CacheCoherencePublisher publisher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        publisher = new CacheCoherencePublisher(jdbcTemplate, "payments_cache", 100);
+        lenient().doAnswer(inv -> {
+            payloads.add((String) inv.getArgument(1));
+            return null;
+        }).when(preparedStatement).setString(eq(2), anyString());
+        lenient().when(jdbcTemplate.execute(anyString(), this.<Boolean>callback())).thenAnswer(inv -> {
+            PreparedStatementCallback<Boolean> callback = inv.getArgument(1);
+            return callback.doInPreparedStatement(preparedStatement);
+        });
+    }
+
+    @Test
+    void testFlush_DeduplicatesBurstIntoOneNotification() {
+        // Arrange
+        for (int i = 0; i < 50; i++) {
+            publisher.onAccountChanged(new AccountChangedEvent(1L, 7L, BigDecimal.TEN, true, "1.0"));
+        }
+        publisher.onAccountChanged(new AccountChangedEvent(2L, 7L, BigDecimal.ONE, true, "1.0"));
+        publisher.onPersonChanged(new PersonChangedEvent(8L));
+        publisher.onPersonChanged(new PersonChangedEvent(8L));
+
+        // Act
+        publisher.flush();
+        publisher.flush();
+
+        // Assert
+        assertEquals(1, payloads.size());
+        CacheInvalidation invalidation = CacheInvalidation.decode(payloads.get(0));
+        assertEquals(publisher.nodeId(), invalidation.nodeId());
+        assertEquals(Set.of(1L, 2L), invalidation.accountIds());
+        // balance changes leave the account holder's cached person alone
+        assertEquals(Set.of(8L), invalidation.personIds());
+    }
+
+    @Test
+    void testFlush_OversizedBurstBecomesFullFlush() {
+        // Arrange
+        for (long id = 1; id <= 150; id++) {
+            publisher.onAccountChanged(new AccountChangedEvent(id, null, BigDecimal.ONE, true, "1.0"));
+        }
+
+        // Act
+        publisher.flush();
+
+        // Assert
+        assertEquals(1, payloads.size());
+        assertTrue(CacheInvalidation.decode(payloads.get(0)).flushAll());
+    }
+
+    @Test
+    void testFlush_RetriesAfterFailure() {
+        // Arrange
+        publisher.onAccountChanged(new AccountChangedEvent(3L, null, BigDecimal.ONE, true, "1.0"));
+        doThrow(new IllegalStateException("connection lost"))
+            .doReturn(true)
+            .when(jdbcTemplate).execute(anyString(), this.<Boolean>callback());
+
+        // Act
+        publisher.flush();
+        publisher.flush();
+
+        // Assert
+        verify(jdbcTemplate, times(2)).execute(anyString(), this.<Boolean>callback());
+    }
+
+    @Test
+    void testEncode_SplitsLargeBatchesUnderPayloadLimit() {
+        // Arrange
+        Set<Long> accountIds = new LinkedHashSet<>();
+        for (long id = 1_000_000; id < 1_003_000; id++) {
+            accountIds.add(id);
+        }
+        CacheInvalidation invalidation = new CacheInvalidation("node", accountIds, Set.of(5L), false);
+
+        // Act
+        List<String> encoded = invalidation.encode();
+
+        // Assert
+        assertTrue(encoded.size() > 1);
+        Set<Long> decodedAccounts = new LinkedHashSet<>();
+        Set<Long> decodedPersons = new LinkedHashSet<>();
+        for (String payload : encoded) {
+            assertTrue(payload.length() <= CacheInvalidation.MAX_PAYLOAD);
+            CacheInvalidation part = CacheInvalidation.decode(payload);
+            decodedAccounts.addAll(part.accountIds());
+            decodedPersons.addAll(part.personIds());
+        }
+        assertEquals(accountIds, decodedAccounts);
+        assertEquals(Set.of(5L), decodedPersons);
+    }
+
+    private <T> PreparedStatementCallback<T> callback() {
+        return any();
+    }
+}
@@ -0,0 +1,157 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.tassi.payments.model.Hold;
+import com.tassi.payments.model.HoldStatus;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.HoldRepository;
+import com.tassi.payments.repository.PersonRepository;
+
+// the expiry tick is driven by the tests
+@SpringBootTest(properties = {"payments.holds.expiry-interval-ms=3600000", "payments.slots.auto-enabled=false"})
+class HoldLifecycleTest {
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private HoldService holdService;
+
+    @Autowired
+    private HoldExpiryWheel holdExpiryWheel;
+
+    @Autowired
+    private HoldRepository holdRepository;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Card Holder");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1990, 7, 7));
+        Long personId = personRepository.save(person).getIdPerson();
+        accountId = accountService.createAccount(personId, new BigDecimal("100.00"), new BigDecimal("1000.00"), 1).getIdAccount();
+    }
+
+    @Test
+    void testAuthorize_ReducesAvailableButNotLedger() {
+        // Act
+        holdService.authorize(accountId, new BigDecimal("70.00"), null);
+
+        // Assert
+        AccountState state = accountService.getState(accountId);
+        assertEquals(0, new BigDecimal("100.00").compareTo(state.balance()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(state.available()));
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+            () -> accountService.withdraw(accountId, new BigDecimal("50.00")));
+        assertEquals("Insufficient balance for withdrawal.", e.getMessage());
+        assertThrows(IllegalStateException.class, () -> holdService.authorize(accountId, new BigDecimal("40.00"), null));
+    }
+
+    @Test
+    void testCapture_PartialDebitsLedgerAndReleasesRest() {
+        // Arrange
+        Hold hold = holdService.authorize(accountId, new BigDecimal("70.00"), null);
+
+        // Act
+        Hold captured = holdService.capture(hold.getIdHold(), new BigDecimal("50.00"));
+
+        // Assert
+        assertEquals(HoldStatus.CAPTURED, captured.getStatus());
+        assertNotNull(captured.getTransactionId());
+        AccountState state = accountService.getState(accountId);
+        assertEquals(0, new BigDecimal("50.00").compareTo(state.balance()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(state.held()));
+        assertThrows(IllegalStateException.class, () -> holdService.release(hold.getIdHold()));
+        assertEquals(1, accountService.getStatement(accountId).stream().filter(t -> t.getValue().signum() < 0).count());
+    }
+
+    @Test
+    void testCapture_SlottedAccount() {
+        // Arrange
+        balanceSlotService.promote(accountId, 4);
+        accountService.deposit(accountId, new BigDecimal("20.00"));
+        Hold hold = holdService.authorize(accountId, new BigDecimal("110.00"), null);
+
+        // Act
+        holdService.capture(hold.getIdHold(), null);
+
+        // Assert
+        AccountState state = accountService.getState(accountId);
+        assertEquals(0, new BigDecimal("10.00").compareTo(state.balance()));
+        assertEquals(0, new BigDecimal("10.00").compareTo(state.available()));
+    }
+
+    @Test
+    void testRelease_RestoresAvailable() {
+        // Arrange
+        Hold hold = holdService.authorize(accountId, new BigDecimal("70.00"), null);
+        String versionBefore = accountService.getState(accountId).version();
+
+        // Act
+        holdService.release(hold.getIdHold());
+
+        // Assert
+        AccountState state = accountService.getState(accountId);
+        assertEquals(0, new BigDecimal("100.00").compareTo(state.available()));
+        assertNotEquals(versionBefore, state.version());
+        assertEquals(HoldStatus.RELEASED, holdRepository.findById(hold.getIdHold()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testExpiry_WheelReleasesDueHolds() throws InterruptedException {
+        // Arrange
+        Hold shortHold = holdService.authorize(accountId, new BigDecimal("30.00"), Duration.ofSeconds(1));
+        Hold longHold = holdService.authorize(accountId, new BigDecimal("20.00"), Duration.ofHours(1));
+        Thread.sleep(2_100);
+
+        // Act
+        holdExpiryWheel.expireDue();
+
+        // Assert
+        assertEquals(HoldStatus.EXPIRED, holdRepository.findById(shortHold.getIdHold()).orElseThrow().getStatus());
+        assertEquals(HoldStatus.ACTIVE, holdRepository.findById(longHold.getIdHold()).orElseThrow().getStatus());
+        assertEquals(0, new BigDecimal("80.00").compareTo(accountService.getState(accountId).available()));
+        assertThrows(IllegalStateException.class, () -> holdService.capture(shortHold.getIdHold(), null));
+    }
+
+    @Test
+    void testRecover_SchedulesHoldsFromDatabase() {
+        // Arrange: an active hold the wheel has never seen, already past its expiry (written before a restart)
+        LocalDateTime past = LocalDateTime.now().minusMinutes(5);
+        Hold hold = holdRepository.save(new Hold(null, accountId, new BigDecimal("40.00"), HoldStatus.ACTIVE,
+            past.minusDays(1), past, null, null, null));
+        jdbcTemplate.update("update ACCOUNTS set held_amount = 40.00 where id_account = ?", accountId);
+
+        // Act
+        assertTrue(holdExpiryWheel.recover() >= 1);
+        holdExpiryWheel.expireDue();
+
+        // Assert
+        assertEquals(HoldStatus.EXPIRED, holdRepository.findById(hold.getIdHold()).orElseThrow().getStatus());
+        assertEquals(0, BigDecimal.ZERO.compareTo(accountService.getState(accountId).held()));
+    }
+}
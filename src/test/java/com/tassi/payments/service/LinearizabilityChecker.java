@@ -0,0 +1,145 @@
+package com.tassi.payments.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Linearizability check of a concurrent history against a sequential model (Wing &amp; Gong's
+ * search with Lowe's memoization of visited (linearized set, state) pairs).
+ *
+ * Each operation carries its invocation and response time and its observed result; the model
+ * decides whether that result is possible from a given state. Histories over independent objects
+ * (accounts) should be checked one object at a time, which is equivalent and far cheaper.
+ *
+ * An operation that never responded is recorded with respondedAt = PENDING: it may have taken
+ * effect at any point after its call, or not at all.
+ */
+final class LinearizabilityChecker {
+
+    static final long PENDING = Long.MAX_VALUE;
+
+    private LinearizabilityChecker() {}
+
+    interface Model<S, O> {
+
+        S initial();
+
+        // the state after the operation, or null when its observed result is impossible from this state
+        S step(S state, O operation);
+    }
+
+    record Operation<O>(long invokedAt, long respondedAt, O operation) {
+    }
+
+    static <S, O> boolean isLinearizable(Model<S, O> model, List<Operation<O>> history) {
+        Node<O> head = events(history);
+        BitSet linearized = new BitSet(history.size());
+        Set<Visited<S>> cache = new HashSet<>();
+        Deque<Frame<S, O>> stack = new ArrayDeque<>();
+        S state = model.initial();
+
+        Node<O> entry = head.next;
+        while (head.next != null) {
+            if (entry.match != null) {
+                S next = model.step(state, entry.operation);
+                if (next != null) {
+                    BitSet candidate = (BitSet) linearized.clone();
+                    candidate.set(entry.id);
+                    if (cache.add(new Visited<>(candidate, next))) {
+                        stack.push(new Frame<>(entry, state));
+                        state = next;
+                        linearized.set(entry.id);
+                        lift(entry);
+                        entry = head.next;
+                        continue;
+                    }
+                }
+                entry = entry.next;
+            } else if (entry.time == PENDING) {
+                // every completed operation is placed; the pending ones left never took effect
+                return true;
+            } else {
+                // a response whose call could not be placed: undo the last choice
+                if (stack.isEmpty()) {
+                    return false;
+                }
+                Frame<S, O> frame = stack.pop();
+                state = frame.state();
+                linearized.clear(frame.entry().id);
+                unlift(frame.entry());
+                entry = frame.entry().next;
+            }
+        }
+        return true;
+    }
+
+    // calls and returns in time order; on equal times calls go first, i.e. the operations overlap
+    private static <O> Node<O> events(List<Operation<O>> history) {
+        List<Node<O>> events = new ArrayList<>(history.size() * 2);
+        for (int id = 0; id < history.size(); id++) {
+            Operation<O> operation = history.get(id);
+            Node<O> call = new Node<>(id, operation.operation(), operation.invokedAt());
+            Node<O> ret = new Node<>(id, null, operation.respondedAt());
+            call.match = ret;
+            events.add(call);
+            events.add(ret);
+        }
+        events.sort(Comparator.<Node<O>>comparingLong(n -> n.time).thenComparing(n -> n.match == null));
+
+        Node<O> head = new Node<>(-1, null, Long.MIN_VALUE);
+        Node<O> last = head;
+        for (Node<O> event : events) {
+            last.next = event;
+            event.prev = last;
+            last = event;
+        }
+        return head;
+    }
+
+    private static <O> void lift(Node<O> call) {
+        call.prev.next = call.next;
+        call.next.prev = call.prev;
+        Node<O> ret = call.match;
+        ret.prev.next = ret.next;
+        if (ret.next != null) {
+            ret.next.prev = ret.prev;
+        }
+    }
+
+    private static <O> void unlift(Node<O> call) {
+        Node<O> ret = call.match;
+        ret.prev.next = ret;
+        if (ret.next != null) {
+            ret.next.prev = ret;
+        }
+        call.prev.next = call;
+        call.next.prev = call;
+    }
+
+    private static final class Node<O> {
+        final int id;
+        final O operation;
+        final long time;
+        Node<O> match;
+        Node<O> prev;
+        Node<O> next;
+
+        Node(int id, O operation, long time) {
+            this.id = id;
+            this.operation = operation;
+            this.time = time;
+        }
+    }
+
+    private record Frame<S, O>(Node<O> entry, S state) {
+    }
+
+    private record Visited<S>(BitSet linearized, S state) {
+    }
+}
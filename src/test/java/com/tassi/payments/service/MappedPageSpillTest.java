@@ -0,0 +1,46 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedPageSpillTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testPutAndGet() throws Exception {
+        try (MappedPageSpill spill = new MappedPageSpill(directory, 1024)) {
+            // Act
+            spill.put("a", new byte[] {1, 2, 3});
+            spill.put("b", new byte[] {4});
+
+            // Assert
+            assertArrayEquals(new byte[] {1, 2, 3}, spill.get("a"));
+            assertArrayEquals(new byte[] {4}, spill.get("b"));
+            assertNull(spill.get("c"));
+        }
+        assertFalse(Files.exists(directory.resolve("statement-pages.spill")));
+    }
+
+    @Test
+    void testWrap_ForgetsEarlierBlocks() throws Exception {
+        try (MappedPageSpill spill = new MappedPageSpill(directory, 10)) {
+            // Act
+            spill.put("a", new byte[6]);
+            spill.put("b", new byte[6]);
+            spill.put("too-big", new byte[11]);
+
+            // Assert
+            assertNull(spill.get("a"));
+            assertNotNull(spill.get("b"));
+            assertNull(spill.get("too-big"));
+            assertEquals(1, spill.size());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.tassi.payments.dto.TransactionEventDto;
+import com.tassi.payments.model.OutboxCursor;
+import com.tassi.payments.model.OutboxEvent;
+import com.tassi.payments.repository.OutboxCursorRepository;
+import com.tassi.payments.repository.OutboxEventRepository;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxCursorRepository outboxCursorRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Captor
+    private ArgumentCaptor<List<Object[]>> updates;
+
+    private final List<List<TransactionEventDto>> received = new ArrayList<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final OutboxCursor cursor = new OutboxCursor(OutboxCursor.STREAM, 5L);
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(inv ->
+            inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(inv -> {
+            inv.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(outboxCursorRepository.existsById(OutboxCursor.STREAM)).thenReturn(true);
+        when(outboxCursorRepository.findByIdForUpdate(OutboxCursor.STREAM)).thenReturn(Optional.of(cursor));
+        relay = new OutboxRelay(outboxEventRepository, outboxCursorRepository, List.of(received::add),
+            transactionTemplate, jdbcTemplate, afterCommit::add, 2);
+    }
+
+    @Test
+    void testRelay_AssignsOffsetsFromCursorUntilDrained() {
+        // Arrange
+        when(outboxEventRepository.findByPublishedFalseOrderByIdEventAsc(any()))
+            .thenReturn(List.of(event(11L), event(12L)))
+            .thenReturn(List.of(event(13L)));
+
+        // Act
+        relay.relay();
+        afterCommit.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(2, received.size());
+        assertEquals(List.of(6L, 7L), received.get(0).stream().map(TransactionEventDto::getOffset).toList());
+        assertEquals(8L, received.get(1).get(0).getOffset());
+        assertEquals(8L, cursor.getLastOffset());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), updates.capture());
+        assertArrayEquals(new Object[] {6L, 11L}, updates.getAllValues().get(0).get(0));
+    }
+
+    // a row that commits late with a lower id gets the next offset, so offset readers still see it
+    @Test
+    void testRelay_LateLowerIdGetsNextOffset() {
+        // Arrange
+        when(outboxEventRepository.findByPublishedFalseOrderByIdEventAsc(any()))
+            .thenReturn(List.of(event(3L)));
+
+        // Act
+        relay.relay();
+        afterCommit.forEach(Runnable::run);
+
+        // Assert
+        assertEquals(6L, received.get(0).get(0).getOffset());
+        assertEquals(3L, received.get(0).get(0).getTransactionId());
+    }
+
+    @Test
+    void testRelay_SinksRunOnlyAfterTheTransaction() {
+        // Arrange
+        when(outboxEventRepository.findByPublishedFalseOrderByIdEventAsc(any())).thenReturn(List.of(event(11L)));
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertTrue(received.isEmpty());
+        assertEquals(1, afterCommit.size());
+    }
+
+    @Test
+    void testRelay_NothingPending() {
+        // Arrange
+        when(outboxEventRepository.findByPublishedFalseOrderByIdEventAsc(any())).thenReturn(List.of());
+
+        // Act
+        relay.relay();
+
+        // Assert
+        assertTrue(afterCommit.isEmpty());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertEquals(5L, cursor.getLastOffset());
+    }
+
+    private static OutboxEvent event(Long id) {
+        return new OutboxEvent(id, 10L, id, "DEPOSIT", new BigDecimal("1.00"), new BigDecimal("1.00"), LocalDateTime.now(), false, null);
+    }
+}
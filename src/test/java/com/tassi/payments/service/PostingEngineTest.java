@@ -0,0 +1,185 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.tassi.payments.model.Person;
+import com.tassi.payments.model.PostingKind;
+import com.tassi.payments.model.PostingRun;
+import com.tassi.payments.model.Transaction;
+import com.tassi.payments.repository.OutboxEventRepository;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.repository.PostingRunRepository;
+import com.tassi.payments.repository.TransactionRepository;
+
+// type 1 earns 36.5% a year (0.1% a day) and pays 5.00 a month; type 3 has no rule
+@SpringBootTest(properties = {
+    "payments.posting.chunk-size=2",
+    "payments.posting.parallelism=2",
+    "payments.posting.max-chunks-per-second=0",
+    "payments.posting.account-types.1.annual-interest-rate=0.365",
+    "payments.posting.account-types.1.monthly-fee=5.00"
+})
+class PostingEngineTest {
+
+    @Autowired
+    private PostingEngine postingEngine;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PostingRunRepository postingRunRepository;
+
+    @Autowired
+    private HoldService holdService;
+
+    private Long personId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Posting Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1970, 3, 3));
+        personId = personRepository.save(person).getIdPerson();
+    }
+
+    @Test
+    void testInterest_PostedOncePerBusinessDate() {
+        // Arrange
+        Long earning = open("1000.00", 1);
+        Long noRule = open("1000.00", 3);
+        Long empty = open("0.00", 1);
+        LocalDate businessDate = LocalDate.of(2024, 1, 31);
+
+        // Act
+        PostingRun first = postingEngine.run(PostingKind.INTEREST, businessDate);
+        PostingRun second = postingEngine.run(PostingKind.INTEREST, businessDate);
+
+        // Assert
+        assertTrue(first.getCompleted());
+        assertEquals(first.getIdRun(), second.getIdRun());
+        assertEquals(new BigDecimal("1001.00"), accountService.getBalance(earning));
+        assertEquals(new BigDecimal("1000.00"), accountService.getBalance(noRule));
+        assertEquals(new BigDecimal("0.00"), accountService.getBalance(empty));
+
+        List<Transaction> transactions = transactionRepository.findByAccount_IdAccountOrderByTransactionDateDesc(earning);
+        assertEquals(1, transactions.size());
+        assertEquals(new BigDecimal("1.00"), transactions.get(0).getValue());
+        assertEquals(LocalDateTime.of(2024, 1, 31, 23, 59, 59), transactions.get(0).getTransactionDate());
+        assertTrue(outboxEventRepository.findAll().stream()
+            .anyMatch(e -> e.getAccountId().equals(earning) && e.getEventType().equals("INTEREST")
+                && e.getBalanceAfter().compareTo(new BigDecimal("1001.00")) == 0));
+
+        // a forced re-run of the same date skips accounts that already have their entry
+        postingRunRepository.deleteById(first.getIdRun());
+        postingEngine.run(PostingKind.INTEREST, businessDate);
+        assertEquals(new BigDecimal("1001.00"), accountService.getBalance(earning));
+    }
+
+    @Test
+    void testInterest_EarlierDateStillPostedAfterLaterOne() {
+        // Arrange: the 30th failed or was skipped, the 31st went through
+        Long earning = open("1000.00", 1);
+        postingEngine.run(PostingKind.INTEREST, LocalDate.of(2022, 6, 30));
+
+        // Act
+        postingEngine.run(PostingKind.INTEREST, LocalDate.of(2022, 6, 29));
+
+        // Assert
+        assertEquals(2, transactionRepository.findByAccount_IdAccountOrderByTransactionDateDesc(earning).size());
+    }
+
+    @Test
+    void testCatchUp_ResumesIncompleteRunsAndMissedDates() {
+        // Arrange: the 10th stopped before its first wave, the 11th never ran; later runs from
+        // other tests are removed so the 10th is the latest
+        Long earning = open("1000.00", 1);
+        LocalDate interruptedDate = LocalDate.of(2023, 3, 10);
+        LocalDate target = LocalDate.of(2023, 3, 12);
+        postingRunRepository.findAll().stream()
+            .filter(r -> r.getKind() == PostingKind.INTEREST && !r.getBusinessDate().isBefore(interruptedDate))
+            .forEach(r -> postingRunRepository.deleteById(r.getIdRun()));
+        PostingRun interrupted = new PostingRun();
+        interrupted.setKind(PostingKind.INTEREST);
+        interrupted.setBusinessDate(interruptedDate);
+        interrupted.setStartedAt(LocalDateTime.now());
+        postingRunRepository.save(interrupted);
+
+        // Act
+        postingEngine.catchUp(PostingKind.INTEREST, target, date -> date.plusDays(1));
+
+        // Assert
+        assertTrue(postingRunRepository.findByKindAndBusinessDate(PostingKind.INTEREST, interruptedDate).orElseThrow().getCompleted());
+        assertTrue(postingRunRepository.findByKindAndBusinessDate(PostingKind.INTEREST, LocalDate.of(2023, 3, 11)).orElseThrow().getCompleted());
+        assertTrue(postingRunRepository.findByKindAndBusinessDate(PostingKind.INTEREST, target).orElseThrow().getCompleted());
+        assertEquals(3, transactionRepository.findByAccount_IdAccountOrderByTransactionDateDesc(earning).size());
+    }
+
+    @Test
+    void testInterest_AccruesOnEndOfDayBalance() {
+        // Arrange: the deposit is made after the business date
+        Long earning = open("1000.00", 1);
+        accountService.deposit(earning, new BigDecimal("1000.00"));
+        LocalDate businessDate = LocalDate.now().minusDays(1);
+
+        // Act
+        postingEngine.run(PostingKind.INTEREST, businessDate);
+
+        // Assert
+        assertEquals(new BigDecimal("2001.00"), accountService.getBalance(earning));
+    }
+
+    @Test
+    void testFee_ResumesFromCheckpointAndCapsAtBalance() {
+        // Arrange
+        Long beforeCheckpoint = open("100.00", 1);
+        Long regular = open("100.00", 1);
+        Long low = open("3.00", 1);
+        Long held = open("10.00", 1);
+        holdService.authorize(held, new BigDecimal("8.00"), null);
+        LocalDate businessDate = LocalDate.of(2024, 2, 1);
+
+        // a run that stopped after the first account
+        PostingRun interrupted = new PostingRun();
+        interrupted.setKind(PostingKind.FEE);
+        interrupted.setBusinessDate(businessDate);
+        interrupted.setLastAccountId(beforeCheckpoint);
+        interrupted.setStartedAt(LocalDateTime.now());
+        postingRunRepository.save(interrupted);
+
+        // Act
+        PostingRun run = postingEngine.run(PostingKind.FEE, businessDate);
+
+        // Assert
+        assertTrue(run.getCompleted());
+        assertEquals(new BigDecimal("100.00"), accountService.getBalance(beforeCheckpoint));
+        assertEquals(new BigDecimal("95.00"), accountService.getBalance(regular));
+        assertEquals(new BigDecimal("0.00"), accountService.getBalance(low));
+        // the fee leaves the held 8.00 capturable
+        assertEquals(new BigDecimal("8.00"), accountService.getBalance(held));
+    }
+
+    private Long open(String balance, int accountType) {
+        return accountService.createAccount(personId, new BigDecimal(balance), new BigDecimal("500.00"), accountType).getIdAccount();
+    }
+}
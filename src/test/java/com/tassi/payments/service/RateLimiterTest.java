@@ -0,0 +1,115 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.tassi.payments.config.RateLimitProperties;
+import com.tassi.payments.model.AccountProfile;
+import com.tassi.payments.repository.AccountProfileRepository;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimiterTest {
+
+    @Mock
+    private AccountProfileRepository accountProfileRepository;
+
+    private RateLimitProperties properties;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        properties.setAccount(new RateLimitProperties.Limit(3, 0.001));
+        properties.getAccountTypes().put(2, new RateLimitProperties.Limit(10, 0.001));
+        rateLimiter = new RateLimiter(properties, accountProfileRepository);
+    }
+
+    @Test
+    void testAccountBucket_RejectsAfterBurst() {
+        // Arrange
+        when(accountProfileRepository.findById(1L)).thenReturn(Optional.of(profile(1)));
+
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquireAccount(1L));
+        }
+        assertTrue(rateLimiter.tryAcquireAccount(1L) > 0);
+        verify(accountProfileRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void testAccountBucket_UsesAccountTypeLimit() {
+        // Arrange
+        when(accountProfileRepository.findById(2L)).thenReturn(Optional.of(profile(2)));
+
+        // Act
+        int admitted = 0;
+        for (int i = 0; i < 20; i++) {
+            if (rateLimiter.tryAcquireAccount(2L) == 0) {
+                admitted++;
+            }
+        }
+
+        // Assert
+        assertEquals(10, admitted);
+    }
+
+    @Test
+    void testClientBucket_IndependentPerClient() {
+        // Arrange
+        properties.setClient(new RateLimitProperties.Limit(1, 0.001));
+
+        // Act & Assert
+        assertEquals(0, rateLimiter.tryAcquireClient("a"));
+        assertTrue(rateLimiter.tryAcquireClient("a") > 0);
+        assertEquals(0, rateLimiter.tryAcquireClient("b"));
+    }
+
+    // 10 tokens a second is 2.56 units a millisecond; polling every millisecond must not drop the .56
+    @Test
+    void testTokenBucket_KeepsFractionalRefill() {
+        // Arrange
+        RateLimiter.TokenBucket bucket = new RateLimiter.TokenBucket(new RateLimitProperties.Limit(1, 10), 0);
+        assertEquals(0, bucket.tryAcquire(0));
+
+        // Act
+        long admittedAt = -1;
+        for (long now = 1; now <= 200 && admittedAt < 0; now++) {
+            if (bucket.tryAcquire(now) == 0) {
+                admittedAt = now;
+            }
+        }
+
+        // Assert
+        assertTrue(admittedAt >= 100 && admittedAt <= 101, "admitted at " + admittedAt);
+    }
+
+    @Test
+    void testEvictIdleBuckets() throws InterruptedException {
+        // Arrange
+        properties.setIdleTimeout(Duration.ZERO);
+        rateLimiter.tryAcquireClient("a");
+        Thread.sleep(5);
+
+        // Act
+        rateLimiter.evictIdleBuckets();
+
+        // Assert
+        assertEquals(0, rateLimiter.trackedBuckets());
+    }
+
+    private static AccountProfile profile(Integer accountType) {
+        AccountProfile profile = new AccountProfile();
+        profile.setAccountType(accountType);
+        return profile;
+    }
+}
@@ -0,0 +1,154 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tassi.payments.dto.StatementResponse;
+import com.tassi.payments.dto.TransactionDto;
+import com.tassi.payments.model.Account;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.model.Transaction;
+import com.tassi.payments.repository.AccountRepository;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.repository.TransactionRepository;
+
+@SpringBootTest
+class StatementPageCacheTest {
+
+    @Autowired
+    private StatementPageCache statementPageCache;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        Person person = new Person();
+        person.setName("Statement Person");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1985, 2, 2));
+        Long personId = personRepository.save(person).getIdPerson();
+        accountId = accountService.createAccount(personId, new BigDecimal("1000.00"), new BigDecimal("500.00"), 1).getIdAccount();
+    }
+
+    @Test
+    void testStatement_ClosedDaysFromPagesMatchLiveStatement() throws Exception {
+        // Arrange: two closed days and today's tail
+        LocalDate today = LocalDate.now();
+        insertPast(today.minusDays(3).atTime(10, 0), "50.00");
+        insertPast(today.minusDays(3).atTime(11, 0), "-20.00");
+        insertPast(today.minusDays(1).atTime(9, 30), "70.00");
+        accountService.deposit(accountId, new BigDecimal("5.00"));
+        long pagesBefore = statementPageCache.cachedPages();
+
+        // Act
+        byte[] first = statementPageCache.statementJson(accountService.getState(accountId));
+        byte[] second = statementPageCache.statementJson(accountService.getState(accountId));
+
+        // Assert
+        assertEquals(live(), new String(first));
+        assertArrayEquals(first, second);
+        assertEquals(pagesBefore + 2, statementPageCache.cachedPages());
+    }
+
+    @Test
+    void testStatement_LateWriteToClosedDayIsServed() throws Exception {
+        // Arrange
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(12, 0);
+        insertPast(yesterday, "10.00");
+        statementPageCache.statementJson(accountService.getState(accountId));
+
+        // Act: a posting for yesterday after the page was cached
+        insertPast(yesterday.plusHours(11), "1.00");
+        byte[] json = statementPageCache.statementJson(accountService.getState(accountId));
+
+        // Assert
+        assertEquals(live(), new String(json));
+        assertEquals(2, objectMapper.readTree(json).get("transactions").size());
+    }
+
+    @Test
+    void testStatement_WriteTodayReusesClosedDayIndex() throws Exception {
+        // Arrange
+        insertPast(LocalDate.now().minusDays(2).atTime(12, 0), "30.00");
+        statementPageCache.statementJson(accountService.getState(accountId));
+
+        // Act: the version changes, the closed days do not
+        accountService.deposit(accountId, new BigDecimal("7.00"));
+        byte[] json = statementPageCache.statementJson(accountService.getState(accountId));
+
+        // Assert
+        assertEquals(live(), new String(json));
+    }
+
+    // history written before the aggregates were introduced has no DAY rows until a backfill
+    @Test
+    void testStatement_ClosedDaysWithoutAggregatesAreListed() throws Exception {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        insertPast(today.minusDays(4).atTime(8, 0), "15.00", false);
+        insertPast(today.minusDays(2).atTime(8, 0), "25.00", false);
+        insertPast(today.minusDays(2).atTime(9, 0), "-5.00", true);
+
+        // Act
+        byte[] json = statementPageCache.statementJson(accountService.getState(accountId));
+
+        // Assert
+        assertEquals(live(), new String(json));
+        assertEquals(3, objectMapper.readTree(json).get("transactions").size());
+    }
+
+    // a transaction on a past day, with its aggregates and a version bump, as a posting would write it
+    private void insertPast(LocalDateTime date, String value) {
+        insertPast(date, value, true);
+    }
+
+    private void insertPast(LocalDateTime date, String value, boolean aggregates) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Account account = accountRepository.findById(accountId).orElseThrow();
+            account.bumpStateVersion();
+            Transaction transaction = new Transaction(null, account, new BigDecimal(value), date);
+            transactionRepository.save(transaction);
+            if (aggregates) {
+                accountSummaryService.record(accountId, transaction.getValue(), date);
+            }
+        });
+    }
+
+    private String live() throws Exception {
+        AccountState state = accountService.getState(accountId);
+        return objectMapper.writeValueAsString(new StatementResponse(accountId, state.balance(),
+            accountService.getStatement(accountId).stream().map(TransactionDto::from).collect(Collectors.toList())));
+    }
+}
@@ -0,0 +1,81 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void testAdvance_FiresAtDeadlineAndNotBefore() {
+        // Arrange: 10ms ticks, 4 buckets per level, so 100ms already needs the third level
+        TimingWheel wheel = new TimingWheel(10, 4, 3, 0);
+        wheel.schedule(1, 25);
+        wheel.schedule(2, 100);
+
+        // Act & Assert
+        assertEquals(List.of(), wheel.advance(20));
+        assertEquals(List.of(1L), wheel.advance(30));
+        assertEquals(List.of(), wheel.advance(99));
+        assertEquals(List.of(2L), wheel.advance(100));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testCancel_RemovesScheduledId() {
+        // Arrange
+        TimingWheel wheel = new TimingWheel(10, 4, 3, 0);
+        wheel.schedule(1, 50);
+        wheel.schedule(2, 50);
+
+        // Act
+        assertTrue(wheel.cancel(1));
+
+        // Assert
+        assertFalse(wheel.cancel(1));
+        assertEquals(List.of(2L), wheel.advance(60));
+    }
+
+    @Test
+    void testSchedule_PastAndBeyondRangeDeadlines() {
+        // Arrange: the wheel covers 4^2 = 16 ticks
+        TimingWheel wheel = new TimingWheel(10, 4, 2, 1_000);
+        wheel.schedule(1, 500);
+        wheel.schedule(2, 1_000 + 10 * 40);
+
+        // Act & Assert
+        assertEquals(List.of(1L), wheel.advance(1_000));
+        assertEquals(List.of(), wheel.advance(1_000 + 10 * 39));
+        assertEquals(List.of(2L), wheel.advance(1_000 + 10 * 40));
+    }
+
+    @Test
+    void testAdvance_RandomDeadlinesFireInTheirTick() {
+        // Arrange
+        TimingWheel wheel = new TimingWheel(1, 8, 3, 0);
+        Random random = new Random(42);
+        long[] deadlines = new long[2_000];
+        for (int id = 0; id < deadlines.length; id++) {
+            deadlines[id] = 1 + random.nextInt(5_000);
+            wheel.schedule(id, deadlines[id]);
+        }
+
+        // Act
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 5_000; now += 1 + random.nextInt(7)) {
+            for (long id : wheel.advance(now)) {
+                assertTrue(deadlines[(int) id] <= now, "fired early: " + id);
+                fired.add(id);
+            }
+        }
+        fired.addAll(wheel.advance(5_000));
+
+        // Assert
+        assertEquals(deadlines.length, fired.size());
+        assertEquals(deadlines.length, fired.stream().distinct().count());
+    }
+}
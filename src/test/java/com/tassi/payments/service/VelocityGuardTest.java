@@ -0,0 +1,125 @@
+package com.tassi.payments.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tassi.payments.config.VelocityProperties;
+
+@ExtendWith(MockitoExtension.class)
+class VelocityGuardTest {
+
+    private static final long MINUTE = 60_000;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private VelocityProperties properties;
+    private VelocityGuard velocityGuard;
+
+    @BeforeEach
+    void setUp() {
+        properties = new VelocityProperties();
+        properties.setWindow(Duration.ofMinutes(10));
+        properties.setBuckets(60);
+        properties.setAccount(new VelocityProperties.Rule(3, null));
+        properties.getAccountTypes().put(2, new VelocityProperties.Rule(0, new BigDecimal("100.00")));
+        velocityGuard = new VelocityGuard(properties, jdbcTemplate);
+    }
+
+    @Test
+    void testCountRule_RejectsWithinWindowAndAdmitsAfterIt() {
+        // Arrange
+        long start = 1_000 * MINUTE;
+        for (int i = 0; i < 3; i++) {
+            velocityGuard.reserve(1L, 1, BigDecimal.ONE, start + i * MINUTE);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> velocityGuard.reserve(1L, 1, BigDecimal.ONE, start + 9 * MINUTE));
+        // the first withdrawal has left the window
+        assertDoesNotThrow(() -> velocityGuard.reserve(1L, 1, BigDecimal.ONE, start + 10 * MINUTE));
+        // other accounts are independent
+        assertDoesNotThrow(() -> velocityGuard.reserve(2L, 1, BigDecimal.ONE, start + 10 * MINUTE));
+    }
+
+    @Test
+    void testAmountRule_UsesAccountType() {
+        // Arrange
+        long now = 1_000 * MINUTE;
+        velocityGuard.reserve(1L, 2, new BigDecimal("60.00"), now);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> velocityGuard.reserve(1L, 2, new BigDecimal("40.00"), now));
+        assertThrows(IllegalStateException.class, () -> velocityGuard.reserve(1L, 2, new BigDecimal("0.01"), now));
+    }
+
+    @Test
+    void testRollback_ReleasesReservation() {
+        // Arrange
+        long now = 1_000 * MINUTE;
+        velocityGuard.reserve(1L, 1, BigDecimal.ONE, now);
+        velocityGuard.reserve(1L, 1, BigDecimal.ONE, now);
+
+        // Act: the third withdrawal's transaction rolls back
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            velocityGuard.reserve(1L, 1, BigDecimal.ONE, now);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        assertDoesNotThrow(() -> velocityGuard.reserve(1L, 1, BigDecimal.ONE, now));
+    }
+
+    @Test
+    void testReplay_CountsTowardsRule() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            velocityGuard.replay(1L, BigDecimal.ONE, now - MINUTE);
+        }
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> velocityGuard.reserve(1L, 1, BigDecimal.ONE, now));
+    }
+
+    @Test
+    void testUnlimitedAccounts_KeepNoState() {
+        // Arrange
+        properties.getAccountTypes().put(3, new VelocityProperties.Rule());
+
+        // Act
+        velocityGuard.reserve(1L, 3, new BigDecimal("1000000.00"));
+
+        // Assert
+        assertEquals(0, velocityGuard.trackedAccounts());
+    }
+
+    @Test
+    void testEvictIdle() {
+        // Arrange
+        velocityGuard.reserve(1L, 1, BigDecimal.ONE, System.currentTimeMillis() - 11 * MINUTE);
+        velocityGuard.reserve(2L, 1, BigDecimal.ONE);
+
+        // Act
+        velocityGuard.evictIdle();
+
+        // Assert
+        assertEquals(1, velocityGuard.trackedAccounts());
+    }
+}
@@ -0,0 +1,114 @@
+package com.tassi.payments.warmup;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.tassi.payments.config.FirstRequestLatencyInterceptor;
+import com.tassi.payments.model.Person;
+import com.tassi.payments.repository.PersonRepository;
+import com.tassi.payments.service.AccountService;
+
+@SpringBootTest(properties = {
+    "payments.warmup.enabled=true",
+    "payments.warmup.min-rounds=2",
+    "payments.warmup.accounts-per-round=3",
+    "payments.warmup.max-duration=30s",
+    "payments.warmup.settle-ratio=1000",
+    "payments.warmup.stable-rounds=1",
+    "payments.warmup.first-requests=5",
+    "management.endpoint.health.probes.enabled=true",
+    "management.endpoint.health.group.readiness.include=readinessState,warmup",
+    "management.endpoint.health.group.readiness.show-details=always"
+})
+@AutoConfigureMockMvc
+class WarmupRunnerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private WarmupRunner warmupRunner;
+
+    @Autowired
+    private FirstRequestLatencyInterceptor firstRequestLatency;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private PersonRepository personRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testWarmup_ReadyWhenDoneAndNothingCommitted() throws Exception {
+        // Act
+        awaitWarmup();
+
+        // Assert
+        assertEquals(WarmupRunner.State.DONE, warmupRunner.state());
+        assertTrue(warmupRunner.report().rounds() >= 2);
+        mockMvc.perform(get("/actuator/health/readiness"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.components.warmup.details.state").value("DONE"));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from PEOPLE where cpf like 'W%'", Integer.class));
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from ACCOUNTS a join PEOPLE p on p.id_person = a.id_person "
+            + "where p.name = 'warmup'", Integer.class));
+    }
+
+    @Test
+    void testFirstRequests_SummarizedOnce() throws Exception {
+        // Arrange
+        awaitWarmup();
+        Person person = new Person();
+        person.setName("Early Bird");
+        person.setCpf(String.format("%014d", System.nanoTime() % 100_000_000_000_000L));
+        person.setDateOfBirth(LocalDate.of(1990, 1, 1));
+        Long personId = personRepository.save(person).getIdPerson();
+        Long accountId = accountService.createAccount(personId, new BigDecimal("10.00"), new BigDecimal("100.00"), 1).getIdAccount();
+
+        // Act
+        for (int i = 0; i < 6; i++) {
+            mockMvc.perform(get("/api/v1/accounts/{id}/balance", accountId)).andExpect(status().isOk());
+        }
+
+        // Assert
+        assertNotNull(firstRequestLatency.summary());
+        assertEquals(5, firstRequestLatency.summary().get("requests"));
+        assertEquals(5, firstRequestLatency.recorded());
+    }
+
+    @Test
+    void testHealth_OutOfServiceWhileRunning() {
+        // Arrange
+        WarmupRunner runner = mock(WarmupRunner.class);
+        when(runner.state()).thenReturn(WarmupRunner.State.RUNNING);
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator(runner, new FirstRequestLatencyInterceptor(1));
+
+        // Act & Assert
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+    }
+
+    private void awaitWarmup() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (warmupRunner.state() != WarmupRunner.State.DONE && warmupRunner.state() != WarmupRunner.State.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+}